@@ -0,0 +1,30 @@
+package com.analyzer.admission;
+
+/**
+ * Thrown when a document is refused before or during extraction. The reason
+ * tells the API layer which status to answer with.
+ */
+public class AdmissionException extends RuntimeException {
+
+    public enum Reason {
+        // Content is not in any enabled format, or not the one its extension claims
+        UNSUPPORTED_CONTENT,
+        // Estimated cost exceeds the whole memory budget, or the extracted text its cap
+        TOO_LARGE,
+        // Budget stayed exhausted for the whole queue timeout
+        OVERLOADED,
+        // Extraction ran past its time limit and was cancelled
+        EXTRACTION_TIMEOUT
+    }
+
+    private final Reason reason;
+
+    public AdmissionException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,46 @@
+package com.analyzer.admission;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A slice of the heap budget held for one document. Closing it returns the
+ * slice, unless an extraction started under it is still running (for
+ * instance after a timeout that the parser ignored), in which case the
+ * slice is returned when that extraction finally ends.
+ */
+public class MemoryReservation implements AutoCloseable {
+
+    private final Semaphore budget;
+    private final int permits;
+    // The caller's hold plus one per running extraction
+    private final AtomicInteger holders = new AtomicInteger(1);
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    MemoryReservation(Semaphore budget, int permits) {
+        this.budget = budget;
+        this.permits = permits;
+    }
+
+    public long getBytes() {
+        return (long) permits * UploadAdmission.PERMIT_BYTES;
+    }
+
+    void retain() {
+        holders.incrementAndGet();
+    }
+
+    void releaseHold() {
+        if (holders.decrementAndGet() == 0) {
+            budget.release(permits);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            releaseHold();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.analyzer.admission;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission layer in front of text extraction.
+ *
+ * Once the extraction layer has identified a document's format, its peak
+ * heap cost is estimated from format, size and (for PDFs) page count and
+ * reserved against a global budget. Documents that do not fit
+ * wait in FIFO order for up to queue-timeout-ms and are then refused, so a
+ * burst of large uploads queues up instead of exhausting the heap.
+ * Extraction itself runs under a time limit.
+ */
+@Service
+public class UploadAdmission {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadAdmission.class);
+
+    // Budget accounting granularity; keeps permit counts within an int
+    static final long PERMIT_BYTES = 1024;
+
+    // Rough, deliberately conservative peak-heap multipliers over the upload
+    // size, covering the raw bytes, the parser's object model, the extracted
+    // String (UTF-16) and the token arrays built from it
+    private static final long BASE_COST = 1L << 20;
+    private static final int PDF_SIZE_FACTOR = 4;
+    private static final long PDF_PAGE_COST = 256L << 10;
+    // DOCX is zipped XML that XMLBeans expands into a DOM
+    private static final int DOCX_SIZE_FACTOR = 25;
+    // Workbooks and presentations are read part by part with SAX, but their
+    // text still inflates from compressed XML
+    private static final int ZIPPED_XML_SIZE_FACTOR = 12;
+    private static final int TXT_SIZE_FACTOR = 6;
+
+    private final Semaphore budget;
+    private final int budgetPermits;
+    private final long queueTimeoutMs;
+    private final long extractionTimeoutMs;
+    private final ExecutorService extractionExecutor;
+
+    public UploadAdmission(@Value("${analyzer.admission.budget-mb:0}") long budgetMb,
+            @Value("${analyzer.admission.heap-fraction:0.5}") double heapFraction,
+            @Value("${analyzer.admission.queue-timeout-ms:10000}") long queueTimeoutMs,
+            @Value("${analyzer.admission.extraction-timeout-ms:60000}") long extractionTimeoutMs) {
+        long budgetBytes = budgetMb > 0
+                ? budgetMb << 20
+                : (long) (Runtime.getRuntime().maxMemory() * heapFraction);
+        this.budgetPermits = (int) Math.min(Integer.MAX_VALUE, Math.max(1, budgetBytes / PERMIT_BYTES));
+        this.budget = new Semaphore(budgetPermits, true);
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.extractionTimeoutMs = extractionTimeoutMs;
+
+        // Unbounded on purpose: every running extraction holds a reservation,
+        // so the memory budget already bounds how many can exist
+        AtomicInteger threadCount = new AtomicInteger();
+        this.extractionExecutor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "extraction-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("Admission budget {} MB, extraction timeout {} ms", budgetPermits * PERMIT_BYTES >> 20,
+                extractionTimeoutMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        extractionExecutor.shutdownNow();
+    }
+
+    public MemoryReservation reserve(String fileType, byte[] content) {
+        try {
+            return reserve(fileType, content.length, new ByteArrayInputStream(content));
+        } catch (IOException e) {
+            // Cannot happen for an in-memory stream
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Reserve the estimated cost of extracting a document, waiting for budget
+     * to free up if necessary. The content stream is only scanned (for PDF
+     * page markers), never retained.
+     */
+    public MemoryReservation reserve(String fileType, long size, InputStream content) throws IOException {
+        long cost = estimateCost(fileType, size, content);
+        int permits = (int) Math.min(Integer.MAX_VALUE, (cost + PERMIT_BYTES - 1) / PERMIT_BYTES);
+        if (permits > budgetPermits) {
+            throw new AdmissionException(AdmissionException.Reason.TOO_LARGE, String.format(
+                    "Document needs an estimated %d MB to analyze, more than the %d MB budget",
+                    cost >> 20, budgetPermits * PERMIT_BYTES >> 20));
+        }
+
+        try {
+            if (!budget.tryAcquire(permits, queueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new AdmissionException(AdmissionException.Reason.OVERLOADED,
+                        "Server is busy analyzing other documents, please retry shortly");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AdmissionException(AdmissionException.Reason.OVERLOADED, "Interrupted while queued");
+        }
+        logger.debug("Reserved {} KB for {} upload of {} bytes ({} KB left)", permits, fileType, size,
+                budget.availablePermits());
+        return new MemoryReservation(budget, permits);
+    }
+
+    /**
+     * Run an extraction under the configured time limit. On timeout the
+     * extraction thread is interrupted; the reservation stays held until it
+     * actually stops.
+     */
+    public <T> T extract(MemoryReservation reservation, Callable<T> extraction) throws IOException {
+        reservation.retain();
+        Future<T> future;
+        try {
+            future = extractionExecutor.submit(() -> {
+                try {
+                    return extraction.call();
+                } finally {
+                    reservation.releaseHold();
+                }
+            });
+        } catch (RuntimeException e) {
+            reservation.releaseHold();
+            throw e;
+        }
+
+        try {
+            return future.get(extractionTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new AdmissionException(AdmissionException.Reason.EXTRACTION_TIMEOUT,
+                    "Text extraction did not finish within " + extractionTimeoutMs + " ms");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted during extraction", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    public long getBudgetBytes() {
+        return budgetPermits * PERMIT_BYTES;
+    }
+
+    public long getAvailableBytes() {
+        return budget.availablePermits() * PERMIT_BYTES;
+    }
+
+    private long estimateCost(String fileType, long size, InputStream content) throws IOException {
+        return BASE_COST + switch (fileType) {
+            case "pdf" -> size * PDF_SIZE_FACTOR + countPdfPages(content) * PDF_PAGE_COST;
+            case "docx" -> size * DOCX_SIZE_FACTOR;
+            case "xlsx", "pptx" -> size * ZIPPED_XML_SIZE_FACTOR;
+            default -> size * TXT_SIZE_FACTOR;
+        };
+    }
+
+    /**
+     * Count page objects by scanning for "/Type /Page" (but not "/Pages")
+     * without parsing. Pages inside compressed object streams are missed, so
+     * this is a lower bound that the size factor backs up.
+     */
+    static long countPdfPages(InputStream content) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        byte[] type = "/Type".getBytes(StandardCharsets.US_ASCII);
+        byte[] page = "/Page".getBytes(StandardCharsets.US_ASCII);
+        long pages = 0;
+        int typeMatched = 0;
+        // -1 while not after "/Type", else the number of "/Page" bytes matched so far
+        int pageMatched = -1;
+        int read;
+        while ((read = content.read(buffer)) > 0) {
+            for (int i = 0; i < read; i++) {
+                byte b = buffer[i];
+                if (pageMatched == page.length) {
+                    // "/Page" complete; it is a page unless it continues as "/Pages"
+                    if (b != 's') {
+                        pages++;
+                    }
+                    pageMatched = -1;
+                }
+                if (pageMatched >= 0) {
+                    if (b == page[pageMatched]) {
+                        pageMatched++;
+                        continue;
+                    }
+                    if (pageMatched == 0 && (b == ' ' || b == '\r' || b == '\n' || b == '\t')) {
+                        continue;
+                    }
+                    pageMatched = -1;
+                }
+                if (b == type[typeMatched]) {
+                    typeMatched++;
+                    if (typeMatched == type.length) {
+                        typeMatched = 0;
+                        pageMatched = 0;
+                    }
+                } else {
+                    typeMatched = b == type[0] ? 1 : 0;
+                }
+            }
+        }
+        return pages;
+    }
+}
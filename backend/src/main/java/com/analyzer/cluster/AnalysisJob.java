@@ -0,0 +1,50 @@
+package com.analyzer.cluster;
+
+/**
+ * A unit of analysis work handed from an API node to a worker node.
+ * Carries the raw upload so workers never need access to the API node's disk.
+ */
+public class AnalysisJob {
+    private final String id;
+    private final String filename;
+    private final byte[] content;
+    // Set when the upload is a revision of a stored document
+    private final String parentId;
+    private final long submittedAt;
+
+    public AnalysisJob(String id, String filename, byte[] content) {
+        this(id, filename, content, null);
+    }
+
+    public AnalysisJob(String id, String filename, byte[] content, String parentId) {
+        this(id, filename, content, parentId, System.currentTimeMillis());
+    }
+
+    public AnalysisJob(String id, String filename, byte[] content, String parentId, long submittedAt) {
+        this.id = id;
+        this.filename = filename;
+        this.content = content;
+        this.parentId = parentId;
+        this.submittedAt = submittedAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public byte[] getContent() {
+        return content;
+    }
+
+    public String getParentId() {
+        return parentId;
+    }
+
+    public long getSubmittedAt() {
+        return submittedAt;
+    }
+}
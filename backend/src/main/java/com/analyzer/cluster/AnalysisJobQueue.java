@@ -0,0 +1,55 @@
+package com.analyzer.cluster;
+
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Work queue connecting API nodes to analysis worker nodes.
+ * Jobs are partitioned per worker by consistent hashing of the document id;
+ * workers prove liveness through heartbeats and adopt the partitions of
+ * workers whose heartbeat has expired.
+ */
+public interface AnalysisJobQueue {
+
+    /**
+     * Enqueue a job on the partition of the worker that owns its id
+     */
+    void submit(AnalysisJob job);
+
+    /**
+     * Claim the next job for the given worker, falling back to unassigned work
+     */
+    Optional<AnalysisJob> claim(String workerId);
+
+    /**
+     * Acknowledge a claimed job so it is not redelivered
+     */
+    void complete(String workerId, String jobId);
+
+    /**
+     * True while a job is queued or being processed by some worker
+     */
+    boolean isPending(String jobId);
+
+    void heartbeat(String workerId);
+
+    void deregister(String workerId);
+
+    Set<String> liveWorkers();
+
+    /**
+     * Heartbeat of a node that admits uploads; such nodes split the worker
+     * pool's capacity between them
+     */
+    void apiHeartbeat(String nodeId);
+
+    void deregisterApiNode(String nodeId);
+
+    Set<String> liveApiNodes();
+
+    /**
+     * Move queued and in-flight jobs of expired workers onto this worker's
+     * partition. Returns the number of jobs taken over.
+     */
+    int takeOverExpiredWorkers(String workerId);
+}
@@ -0,0 +1,19 @@
+package com.analyzer.cluster;
+
+/**
+ * Thrown when a queued document has not been analyzed within the wait window.
+ * The analysis continues on a worker and can be fetched later by id.
+ */
+public class AnalysisPendingException extends RuntimeException {
+
+    private final String documentId;
+
+    public AnalysisPendingException(String documentId) {
+        super("Analysis of document " + documentId + " is still in progress");
+        this.documentId = documentId;
+    }
+
+    public String getDocumentId() {
+        return documentId;
+    }
+}
@@ -0,0 +1,25 @@
+package com.analyzer.cluster;
+
+import com.analyzer.model.DocumentAnalysis;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Storage for finished analyses, shared by every node so that any API node
+ * can answer for a document analyzed elsewhere.
+ */
+public interface AnalysisResultStore {
+
+    void put(DocumentAnalysis analysis);
+
+    DocumentAnalysis get(String documentId);
+
+    Map<String, DocumentAnalysis> getAll();
+
+    /**
+     * Visit the id of every stored analysis without decoding any of them;
+     * suited to scans of a large store, which getAll would load at once
+     */
+    void forEachId(Consumer<String> action);
+}
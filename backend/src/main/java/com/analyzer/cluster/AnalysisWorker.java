@@ -0,0 +1,146 @@
+package com.analyzer.cluster;
+
+import com.analyzer.service.DocumentAnalysisService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consumes the shared job queue on worker nodes. Heartbeats on a fixed
+ * interval and, on the same tick, adopts the jobs of workers whose
+ * heartbeat has expired.
+ */
+@Component
+@ConditionalOnProperty(name = "analyzer.node.role", havingValue = "worker")
+public class AnalysisWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisWorker.class);
+
+    private final AnalysisJobQueue jobQueue;
+    private final DocumentAnalysisService documentAnalysisService;
+    private final String workerId;
+    private final int threads;
+    private final long heartbeatIntervalMs;
+    private final long pollIntervalMs;
+
+    private ScheduledExecutorService heartbeatExecutor;
+    private ExecutorService workerExecutor;
+    private volatile boolean running;
+
+    public AnalysisWorker(AnalysisJobQueue jobQueue, DocumentAnalysisService documentAnalysisService,
+            @Value("${analyzer.node.id:}") String nodeId,
+            @Value("${analyzer.cluster.worker-threads:0}") int threads,
+            @Value("${analyzer.cluster.heartbeat-interval-ms:2000}") long heartbeatIntervalMs,
+            @Value("${analyzer.cluster.poll-interval-ms:200}") long pollIntervalMs) {
+        this.jobQueue = jobQueue;
+        this.documentAnalysisService = documentAnalysisService;
+        this.workerId = nodeId.isBlank() ? defaultNodeId() : nodeId;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.heartbeatIntervalMs = heartbeatIntervalMs;
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        jobQueue.heartbeat(workerId);
+
+        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "worker-heartbeat"));
+        heartbeatExecutor.scheduleWithFixedDelay(this::heartbeat, heartbeatIntervalMs, heartbeatIntervalMs,
+                TimeUnit.MILLISECONDS);
+
+        workerExecutor = Executors.newFixedThreadPool(threads, r -> new Thread(r, "analysis-worker"));
+        for (int i = 0; i < threads; i++) {
+            workerExecutor.submit(this::processJobs);
+        }
+        logger.info("Analysis worker {} started with {} thread(s)", workerId, threads);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        heartbeatExecutor.shutdownNow();
+        workerExecutor.shutdown();
+        try {
+            if (!workerExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                workerExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workerExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        jobQueue.deregister(workerId);
+        logger.info("Analysis worker {} stopped", workerId);
+    }
+
+    public String getWorkerId() {
+        return workerId;
+    }
+
+    private void heartbeat() {
+        try {
+            jobQueue.heartbeat(workerId);
+            jobQueue.takeOverExpiredWorkers(workerId);
+        } catch (Exception e) {
+            logger.warn("Heartbeat failed for worker {}: {}", workerId, e.getMessage());
+        }
+    }
+
+    private void processJobs() {
+        while (running) {
+            Optional<AnalysisJob> claimed;
+            try {
+                claimed = jobQueue.claim(workerId);
+            } catch (Exception e) {
+                logger.warn("Failed to claim job: {}", e.getMessage());
+                claimed = Optional.empty();
+            }
+
+            if (claimed.isEmpty()) {
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                continue;
+            }
+
+            AnalysisJob job = claimed.get();
+            try {
+                documentAnalysisService.analyzeDocument(job.getId(), job.getFilename(), job.getContent(),
+                        job.getParentId());
+                logger.debug("Worker {} analyzed document {} in {} ms", workerId, job.getId(),
+                        System.currentTimeMillis() - job.getSubmittedAt());
+            } catch (Exception e) {
+                logger.error("Worker {} failed to analyze document {}", workerId, job.getId(), e);
+            } finally {
+                jobQueue.complete(workerId, job.getId());
+            }
+        }
+    }
+
+    /**
+     * Host name and process id, unique per JVM
+     */
+    static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "localhost";
+        }
+        return host.replaceAll("[^A-Za-z0-9.-]", "_") + "-" + ProcessHandle.current().pid();
+    }
+}
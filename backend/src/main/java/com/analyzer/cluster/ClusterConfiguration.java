@@ -0,0 +1,57 @@
+package com.analyzer.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Wires the result store and work queue for the configured node role.
+ *
+ * analyzer.node.role=standalone analyzes in the request thread (default)
+ * analyzer.node.role=api        enqueues uploads for worker nodes
+ * analyzer.node.role=worker     enqueues uploads and also consumes the queue
+ *
+ * analyzer.cluster.backend=memory keeps queue and results inside this JVM;
+ * analyzer.cluster.backend=file shares them through analyzer.cluster.dir so
+ * several JVMs on one machine (or on a shared volume) form a cluster.
+ */
+@Configuration
+public class ClusterConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterConfiguration.class);
+
+    private static final String FILE_BACKEND = "file";
+
+    @Value("${analyzer.cluster.backend:memory}")
+    private String backend;
+
+    @Value("${analyzer.cluster.dir:./cluster-data}")
+    private String clusterDir;
+
+    @Bean
+    public AnalysisResultStore analysisResultStore() {
+        if (FILE_BACKEND.equalsIgnoreCase(backend)) {
+            logger.info("Using file-backed result store in {}", clusterDir);
+            return new FileAnalysisResultStore(Path.of(clusterDir));
+        }
+        return new InMemoryAnalysisResultStore();
+    }
+
+    @Bean
+    @ConditionalOnExpression("'${analyzer.node.role:standalone}' != 'standalone'")
+    public AnalysisJobQueue analysisJobQueue(
+            @Value("${analyzer.cluster.virtual-nodes:64}") int virtualNodes,
+            @Value("${analyzer.cluster.worker-timeout-ms:10000}") long workerTimeoutMs) {
+        if (FILE_BACKEND.equalsIgnoreCase(backend)) {
+            logger.info("Using file-backed job queue in {}", clusterDir);
+            return new FileAnalysisJobQueue(Path.of(clusterDir), virtualNodes, workerTimeoutMs);
+        }
+        logger.info("Using embedded job queue");
+        return new InMemoryAnalysisJobQueue(virtualNodes, workerTimeoutMs);
+    }
+}
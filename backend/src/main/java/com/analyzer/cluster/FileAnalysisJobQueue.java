@@ -0,0 +1,294 @@
+package com.analyzer.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * File-backed queue shared by several JVMs through a common directory.
+ *
+ * Layout:
+ * queue/{worker}/{jobId}.job   jobs waiting for a worker
+ * claimed/{worker}/{jobId}.job jobs a worker is processing
+ * workers/{worker}             last heartbeat, epoch millis
+ * api-nodes/{node}             last heartbeat of a node admitting uploads
+ *
+ * Every state change is an atomic rename, so two nodes racing for the same
+ * job can never both win.
+ */
+public class FileAnalysisJobQueue implements AnalysisJobQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileAnalysisJobQueue.class);
+
+    private static final String UNASSIGNED = InMemoryAnalysisJobQueue.UNASSIGNED;
+    private static final String JOB_SUFFIX = ".job";
+
+    private final Path queueDir;
+    private final Path claimedDir;
+    private final Path workersDir;
+    private final Path apiNodesDir;
+    private final Path tmpDir;
+    private final int virtualNodes;
+    private final long workerTimeoutMs;
+
+    public FileAnalysisJobQueue(Path baseDir, int virtualNodes, long workerTimeoutMs) {
+        this.queueDir = baseDir.resolve("queue");
+        this.claimedDir = baseDir.resolve("claimed");
+        this.workersDir = baseDir.resolve("workers");
+        this.apiNodesDir = baseDir.resolve("api-nodes");
+        this.tmpDir = baseDir.resolve("tmp");
+        this.virtualNodes = virtualNodes;
+        this.workerTimeoutMs = workerTimeoutMs;
+
+        try {
+            Files.createDirectories(queueDir.resolve(UNASSIGNED));
+            Files.createDirectories(claimedDir);
+            Files.createDirectories(workersDir);
+            Files.createDirectories(apiNodesDir);
+            Files.createDirectories(tmpDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot initialize job queue in " + baseDir, e);
+        }
+    }
+
+    @Override
+    public void submit(AnalysisJob job) {
+        String owner = new ConsistentHashRing(liveWorkers(), virtualNodes).route(job.getId());
+        Path target = queueDir.resolve(owner != null ? owner : UNASSIGNED).resolve(job.getId() + JOB_SUFFIX);
+
+        Path tmp = tmpDir.resolve(UUID.randomUUID() + JOB_SUFFIX);
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(tmp))) {
+            out.writeUTF(job.getId());
+            out.writeUTF(job.getFilename() != null ? job.getFilename() : "");
+            out.writeLong(job.getSubmittedAt());
+            out.writeInt(job.getContent().length);
+            out.write(job.getContent());
+            // Trailing field, absent from jobs written before revisions existed
+            out.writeUTF(job.getParentId() != null ? job.getParentId() : "");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write job " + job.getId(), e);
+        }
+
+        try {
+            Files.createDirectories(target.getParent());
+            move(tmp, target);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot enqueue job " + job.getId(), e);
+        }
+    }
+
+    @Override
+    public Optional<AnalysisJob> claim(String workerId) {
+        Optional<AnalysisJob> job = claimFrom(queueDir.resolve(workerId), workerId);
+        return job.isPresent() ? job : claimFrom(queueDir.resolve(UNASSIGNED), workerId);
+    }
+
+    private Optional<AnalysisJob> claimFrom(Path partition, String workerId) {
+        for (Path candidate : oldestFirst(partition)) {
+            Path claimed = claimedDir.resolve(workerId).resolve(candidate.getFileName());
+            try {
+                Files.createDirectories(claimed.getParent());
+                move(candidate, claimed);
+            } catch (NoSuchFileException | FileAlreadyExistsException e) {
+                continue; // another worker won the race
+            } catch (IOException e) {
+                logger.warn("Failed to claim {}: {}", candidate, e.getMessage());
+                continue;
+            }
+            try {
+                return Optional.of(read(claimed));
+            } catch (IOException e) {
+                logger.error("Dropping unreadable job file {}", claimed, e);
+                deleteQuietly(claimed);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public void complete(String workerId, String jobId) {
+        deleteQuietly(claimedDir.resolve(workerId).resolve(jobId + JOB_SUFFIX));
+    }
+
+    @Override
+    public boolean isPending(String jobId) {
+        String name = jobId + JOB_SUFFIX;
+        return subdirectories(queueDir).stream().anyMatch(dir -> Files.exists(dir.resolve(name)))
+                || subdirectories(claimedDir).stream().anyMatch(dir -> Files.exists(dir.resolve(name)));
+    }
+
+    @Override
+    public void heartbeat(String workerId) {
+        writeHeartbeat(workersDir, workerId);
+    }
+
+    @Override
+    public void deregister(String workerId) {
+        deleteQuietly(workersDir.resolve(workerId));
+    }
+
+    @Override
+    public Set<String> liveWorkers() {
+        return live(workersDir);
+    }
+
+    @Override
+    public void apiHeartbeat(String nodeId) {
+        writeHeartbeat(apiNodesDir, nodeId);
+    }
+
+    @Override
+    public void deregisterApiNode(String nodeId) {
+        deleteQuietly(apiNodesDir.resolve(nodeId));
+    }
+
+    @Override
+    public Set<String> liveApiNodes() {
+        return live(apiNodesDir);
+    }
+
+    private void writeHeartbeat(Path dir, String nodeId) {
+        Path tmp = tmpDir.resolve(nodeId + "." + UUID.randomUUID() + ".hb");
+        try {
+            Files.writeString(tmp, Long.toString(System.currentTimeMillis()));
+            move(tmp, dir.resolve(nodeId));
+        } catch (IOException e) {
+            logger.warn("Heartbeat for node {} failed: {}", nodeId, e.getMessage());
+            deleteQuietly(tmp);
+        }
+    }
+
+    private Set<String> live(Path dir) {
+        long now = System.currentTimeMillis();
+        Set<String> live = new HashSet<>();
+        for (Path node : list(dir)) {
+            try {
+                long lastSeen = Long.parseLong(Files.readString(node).trim());
+                if (now - lastSeen <= workerTimeoutMs) {
+                    live.add(node.getFileName().toString());
+                }
+            } catch (IOException | NumberFormatException e) {
+                // heartbeat being replaced or corrupt; treat as not live
+            }
+        }
+        return live;
+    }
+
+    @Override
+    public int takeOverExpiredWorkers(String workerId) {
+        Set<String> live = liveWorkers();
+        Path target = queueDir.resolve(workerId);
+        int moved = 0;
+
+        List<Path> partitions = new ArrayList<>(subdirectories(queueDir));
+        partitions.addAll(subdirectories(claimedDir));
+        for (Path partition : partitions) {
+            String owner = partition.getFileName().toString();
+            if (owner.equals(UNASSIGNED) || owner.equals(workerId) || live.contains(owner)) {
+                continue;
+            }
+            for (Path job : list(partition)) {
+                try {
+                    Files.createDirectories(target);
+                    move(job, target.resolve(job.getFileName()));
+                    moved++;
+                } catch (IOException e) {
+                    // taken over by another worker first
+                }
+            }
+        }
+        if (moved > 0) {
+            logger.info("Worker {} took over {} job(s) from expired workers", workerId, moved);
+        }
+        return moved;
+    }
+
+    private AnalysisJob read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            String id = in.readUTF();
+            String filename = in.readUTF();
+            long submittedAt = in.readLong();
+            byte[] content = new byte[in.readInt()];
+            in.readFully(content);
+            String parentId = null;
+            try {
+                parentId = in.readUTF();
+            } catch (EOFException e) {
+                // job written before revisions existed
+            }
+            return new AnalysisJob(id, filename, content, parentId == null || parentId.isEmpty() ? null : parentId,
+                    submittedAt);
+        }
+    }
+
+    private List<Path> oldestFirst(Path dir) {
+        List<Path> files = list(dir);
+        files.sort(Comparator.comparingLong(this::lastModified));
+        return files;
+    }
+
+    private long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private List<Path> subdirectories(Path dir) {
+        try (Stream<Path> entries = Files.list(dir)) {
+            return entries.filter(Files::isDirectory).toList();
+        } catch (IOException e) {
+            return List.of();
+        }
+    }
+
+    private List<Path> list(Path dir) {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return files;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+            entries.forEach(files::add);
+        } catch (IOException e) {
+            logger.warn("Cannot list {}: {}", dir, e.getMessage());
+        }
+        return files;
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Cannot delete {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.analyzer.cluster;
+
+import com.analyzer.model.DocumentAnalysis;
+import com.analyzer.model.DocumentAnalysisCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Result store kept as one encoded file per document in a directory shared by
+ * all nodes. Writes go through a temp file and an atomic rename so readers
+ * never observe a partially written analysis. Files use the
+ * {@link DocumentAnalysisCodec} binary format.
+ */
+public class FileAnalysisResultStore implements AnalysisResultStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileAnalysisResultStore.class);
+
+    // Ids come from request paths; only accept what we generate
+    private static final Pattern SAFE_ID = Pattern.compile("[A-Za-z0-9-]+");
+    private static final String EXTENSION = ".bin";
+
+    private final Path resultsDir;
+    private final Path tmpDir;
+
+    public FileAnalysisResultStore(Path baseDir) {
+        this.resultsDir = baseDir.resolve("results");
+        this.tmpDir = baseDir.resolve("tmp");
+
+        try {
+            Files.createDirectories(resultsDir);
+            Files.createDirectories(tmpDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot initialize result store in " + baseDir, e);
+        }
+    }
+
+    @Override
+    public void put(DocumentAnalysis analysis) {
+        Path tmp = tmpDir.resolve(UUID.randomUUID() + EXTENSION);
+        Path target = resultsDir.resolve(analysis.getId() + EXTENSION);
+        try {
+            Files.write(tmp, DocumentAnalysisCodec.encode(analysis));
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot store analysis " + analysis.getId(), e);
+        }
+    }
+
+    @Override
+    public DocumentAnalysis get(String documentId) {
+        if (documentId == null || !SAFE_ID.matcher(documentId).matches()) {
+            return null;
+        }
+        Path file = resultsDir.resolve(documentId + EXTENSION);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        return read(file);
+    }
+
+    @Override
+    public Map<String, DocumentAnalysis> getAll() {
+        Map<String, DocumentAnalysis> all = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(resultsDir, "*" + EXTENSION)) {
+            for (Path file : files) {
+                DocumentAnalysis analysis = read(file);
+                if (analysis != null) {
+                    all.put(analysis.getId(), analysis);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot list stored analyses: {}", e.getMessage());
+        }
+        return all;
+    }
+
+    @Override
+    public void forEachId(Consumer<String> action) {
+        // The directory is streamed, so memory does not grow with the number of results
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(resultsDir, "*" + EXTENSION)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                action.accept(name.substring(0, name.length() - EXTENSION.length()));
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot list stored analyses: {}", e.getMessage());
+        }
+    }
+
+    private DocumentAnalysis read(Path file) {
+        try {
+            return DocumentAnalysisCodec.decode(Files.readAllBytes(file));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Cannot read stored analysis {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.analyzer.cluster;
+
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Embedded queue for running API and worker roles inside a single JVM
+ */
+public class InMemoryAnalysisJobQueue implements AnalysisJobQueue {
+
+    static final String UNASSIGNED = "_unassigned";
+
+    private final Map<String, Deque<AnalysisJob>> partitions = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, AnalysisJob>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Long> heartbeats = new ConcurrentHashMap<>();
+    private final Map<String, Long> apiHeartbeats = new ConcurrentHashMap<>();
+    private final int virtualNodes;
+    private final long workerTimeoutMs;
+
+    public InMemoryAnalysisJobQueue(int virtualNodes, long workerTimeoutMs) {
+        this.virtualNodes = virtualNodes;
+        this.workerTimeoutMs = workerTimeoutMs;
+    }
+
+    @Override
+    public void submit(AnalysisJob job) {
+        String owner = new ConsistentHashRing(liveWorkers(), virtualNodes).route(job.getId());
+        partition(owner != null ? owner : UNASSIGNED).addLast(job);
+    }
+
+    @Override
+    public Optional<AnalysisJob> claim(String workerId) {
+        AnalysisJob job = partition(workerId).pollFirst();
+        if (job == null) {
+            job = partition(UNASSIGNED).pollFirst();
+        }
+        if (job == null) {
+            return Optional.empty();
+        }
+        inFlight.computeIfAbsent(workerId, k -> new ConcurrentHashMap<>()).put(job.getId(), job);
+        return Optional.of(job);
+    }
+
+    @Override
+    public void complete(String workerId, String jobId) {
+        Map<String, AnalysisJob> claimed = inFlight.get(workerId);
+        if (claimed != null) {
+            claimed.remove(jobId);
+        }
+    }
+
+    @Override
+    public boolean isPending(String jobId) {
+        for (Deque<AnalysisJob> queue : partitions.values()) {
+            for (AnalysisJob job : queue) {
+                if (job.getId().equals(jobId)) {
+                    return true;
+                }
+            }
+        }
+        return inFlight.values().stream().anyMatch(claimed -> claimed.containsKey(jobId));
+    }
+
+    @Override
+    public void heartbeat(String workerId) {
+        heartbeats.put(workerId, System.currentTimeMillis());
+    }
+
+    @Override
+    public void deregister(String workerId) {
+        heartbeats.remove(workerId);
+    }
+
+    @Override
+    public Set<String> liveWorkers() {
+        return live(heartbeats);
+    }
+
+    @Override
+    public void apiHeartbeat(String nodeId) {
+        apiHeartbeats.put(nodeId, System.currentTimeMillis());
+    }
+
+    @Override
+    public void deregisterApiNode(String nodeId) {
+        apiHeartbeats.remove(nodeId);
+    }
+
+    @Override
+    public Set<String> liveApiNodes() {
+        return live(apiHeartbeats);
+    }
+
+    private Set<String> live(Map<String, Long> lastSeenByNode) {
+        long now = System.currentTimeMillis();
+        Set<String> live = new HashSet<>();
+        lastSeenByNode.forEach((node, lastSeen) -> {
+            if (now - lastSeen <= workerTimeoutMs) {
+                live.add(node);
+            }
+        });
+        return live;
+    }
+
+    @Override
+    public int takeOverExpiredWorkers(String workerId) {
+        Set<String> live = liveWorkers();
+        Set<String> known = new HashSet<>(partitions.keySet());
+        known.addAll(inFlight.keySet());
+        known.remove(UNASSIGNED);
+
+        Deque<AnalysisJob> target = partition(workerId);
+        int moved = 0;
+        for (String worker : known) {
+            if (live.contains(worker) || worker.equals(workerId)) {
+                continue;
+            }
+            Deque<AnalysisJob> orphaned = partitions.get(worker);
+            if (orphaned != null) {
+                AnalysisJob job;
+                while ((job = orphaned.pollFirst()) != null) {
+                    target.addLast(job);
+                    moved++;
+                }
+            }
+            Map<String, AnalysisJob> abandoned = inFlight.remove(worker);
+            if (abandoned != null) {
+                abandoned.values().forEach(target::addFirst);
+                moved += abandoned.size();
+            }
+            heartbeats.remove(worker);
+        }
+        return moved;
+    }
+
+    private Deque<AnalysisJob> partition(String owner) {
+        return partitions.computeIfAbsent(owner, k -> new ConcurrentLinkedDeque<>());
+    }
+}
@@ -0,0 +1,42 @@
+package com.analyzer.cluster;
+
+import com.analyzer.model.DocumentAnalysis;
+import com.analyzer.model.DocumentAnalysisCodec;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Single-JVM result store; the default for standalone mode. Analyses are
+ * held in their compact encoded form and decoded on read, which keeps the
+ * retained heap per document close to its compressed text size.
+ */
+public class InMemoryAnalysisResultStore implements AnalysisResultStore {
+
+    private final Map<String, byte[]> analysisStorage = new ConcurrentHashMap<>();
+
+    @Override
+    public void put(DocumentAnalysis analysis) {
+        analysisStorage.put(analysis.getId(), DocumentAnalysisCodec.encode(analysis));
+    }
+
+    @Override
+    public DocumentAnalysis get(String documentId) {
+        byte[] encoded = analysisStorage.get(documentId);
+        return encoded != null ? DocumentAnalysisCodec.decode(encoded) : null;
+    }
+
+    @Override
+    public Map<String, DocumentAnalysis> getAll() {
+        Map<String, DocumentAnalysis> all = new HashMap<>();
+        analysisStorage.forEach((id, encoded) -> all.put(id, DocumentAnalysisCodec.decode(encoded)));
+        return all;
+    }
+
+    @Override
+    public void forEachId(Consumer<String> action) {
+        analysisStorage.keySet().forEach(action);
+    }
+}
@@ -0,0 +1,76 @@
+package com.analyzer.cluster;
+
+import com.analyzer.scheduling.TenantScheduler;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sizes the tenant scheduler to this node's share of the worker fleet in
+ * scale-out mode.
+ *
+ * An upload holds its scheduler slot while a worker analyzes it, so the
+ * slots stand for worker threads rather than this node's CPUs: live
+ * workers times analyzer.cluster.worker-threads (0 assumes every worker has
+ * as many CPUs as this node), divided between the nodes admitting uploads.
+ * Every such node heartbeats through the job queue so the others can count
+ * it. Re-read on every heartbeat interval. An explicit
+ * analyzer.scheduling.max-concurrent is left alone.
+ */
+@Component
+@ConditionalOnExpression("'${analyzer.node.role:standalone}' != 'standalone'"
+        + " and ${analyzer.scheduling.max-concurrent:0} <= 0")
+public class WorkerPoolCapacity {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkerPoolCapacity.class);
+
+    private final AnalysisJobQueue jobQueue;
+    private final TenantScheduler scheduler;
+    private final String nodeId;
+    private final int threadsPerWorker;
+    private final long intervalMs;
+
+    private ScheduledExecutorService executor;
+
+    public WorkerPoolCapacity(AnalysisJobQueue jobQueue, TenantScheduler scheduler,
+            @Value("${analyzer.node.id:}") String nodeId,
+            @Value("${analyzer.cluster.worker-threads:0}") int threadsPerWorker,
+            @Value("${analyzer.cluster.heartbeat-interval-ms:2000}") long intervalMs) {
+        this.jobQueue = jobQueue;
+        this.scheduler = scheduler;
+        this.nodeId = nodeId.isBlank() ? AnalysisWorker.defaultNodeId() : nodeId;
+        this.threadsPerWorker = threadsPerWorker > 0 ? threadsPerWorker : Runtime.getRuntime().availableProcessors();
+        this.intervalMs = intervalMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "worker-pool-capacity"));
+        executor.scheduleWithFixedDelay(this::resize, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+        jobQueue.deregisterApiNode(nodeId);
+    }
+
+    private void resize() {
+        try {
+            jobQueue.apiHeartbeat(nodeId);
+            // With no live worker, keep one worker's worth so uploads queue for the next one to start
+            scheduler.setMaxConcurrent(Math.max(1, jobQueue.liveWorkers().size()) * threadsPerWorker,
+                    jobQueue.liveApiNodes().size());
+        } catch (Exception e) {
+            logger.warn("Cannot size scheduler to the worker pool: {}", e.getMessage());
+        }
+    }
+}
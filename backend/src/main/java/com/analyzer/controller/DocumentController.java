@@ -1,28 +1,57 @@
 package com.analyzer.controller;
 
+import com.analyzer.admission.AdmissionException;
+import com.analyzer.cluster.AnalysisPendingException;
+import com.analyzer.model.CorpusStatistics;
 import com.analyzer.model.DocumentAnalysis;
+import com.analyzer.model.SchedulerStatistics;
+import com.analyzer.model.SimilarDocument;
+import com.analyzer.revision.UnknownParentException;
+import com.analyzer.scheduling.TenantScheduler;
 import com.analyzer.service.DocumentAnalysisService;
+import com.analyzer.service.StartupService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/documents")
 @CrossOrigin(origins = "http://localhost:3000") // Allow React frontend
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class DocumentController {
 
+    private static final String RETRY_AFTER_SECONDS = "5";
+    private static final String DIAGNOSTICS_TOKEN_HEADER = "X-Diagnostics-Token";
+
     private final DocumentAnalysisService documentAnalysisService;
+    private final StartupService startupService;
+    private final TenantScheduler tenantScheduler;
+    private final String diagnosticsToken;
 
-    public DocumentController(DocumentAnalysisService documentAnalysisService) {
+    public DocumentController(DocumentAnalysisService documentAnalysisService, StartupService startupService,
+            TenantScheduler tenantScheduler, @Value("${analyzer.diagnostics.token:}") String diagnosticsToken) {
         this.documentAnalysisService = documentAnalysisService;
+        this.startupService = startupService;
+        this.tenantScheduler = tenantScheduler;
+        this.diagnosticsToken = diagnosticsToken.trim();
     }
 
     @PostMapping("/upload")
-    public ResponseEntity<Object> uploadDocument(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<Object> uploadDocument(@RequestParam("file") MultipartFile file,
+            @RequestParam(value = "parentId", required = false) String parentId,
+            @RequestHeader(value = TenantScheduler.API_KEY_HEADER, required = false) String apiKey,
+            @RequestHeader(value = TenantScheduler.TENANT_HEADER, required = false) String tenantId,
+            @RequestHeader(value = TenantScheduler.PRIORITY_HEADER, required = false) String priority) {
         try {
             // Validate file
             if (file.isEmpty()) {
@@ -31,15 +60,24 @@ public class DocumentController {
             }
 
             if (!documentAnalysisService.isValidFileType(file.getOriginalFilename())) {
-                return ResponseEntity.badRequest()
-                        .body(createErrorResponse("Unsupported file type. Please upload PDF, DOCX, or TXT files."));
+                return ResponseEntity.badRequest().body(createErrorResponse(
+                        "Unsupported file type. Supported extensions: "
+                                + String.join(", ", documentAnalysisService.getSupportedExtensions())));
             }
 
             // Analyze document
-            DocumentAnalysis analysis = documentAnalysisService.analyzeDocument(file);
+            DocumentAnalysis analysis = documentAnalysisService.analyzeDocument(file, blankToNull(parentId),
+                    tenantScheduler.resolveTenant(apiKey, tenantId), TenantScheduler.Lane.fromHeader(priority));
 
             return ResponseEntity.ok(analysis);
 
+        } catch (AdmissionException e) {
+            return admissionRejected(e);
+        } catch (UnknownParentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(createErrorResponse(e.getMessage()));
+        } catch (AnalysisPendingException e) {
+            // Still running on a worker node; the client can poll /{id}/analysis
+            return ResponseEntity.accepted().body(createPendingResponse(e.getDocumentId()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createErrorResponse("Error processing file: " + e.getMessage()));
@@ -51,17 +89,37 @@ public class DocumentController {
         DocumentAnalysis analysis = documentAnalysisService.getAnalysis(id);
 
         if (analysis == null) {
+            if (documentAnalysisService.isPending(id)) {
+                return ResponseEntity.accepted().body(createPendingResponse(id));
+            }
             return ResponseEntity.notFound().build();
         }
 
         return ResponseEntity.ok(analysis);
     }
 
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<SimilarDocument>> getSimilar(@PathVariable String id,
+            @RequestParam(defaultValue = "10") int k) {
+        List<SimilarDocument> similar = documentAnalysisService.findSimilar(id, k);
+        return similar != null ? ResponseEntity.ok(similar) : ResponseEntity.notFound().build();
+    }
+
     @GetMapping("/all")
     public ResponseEntity<Map<String, DocumentAnalysis>> getAllAnalyses() {
         return ResponseEntity.ok(documentAnalysisService.getAllAnalyses());
     }
 
+    @GetMapping("/stats")
+    public ResponseEntity<CorpusStatistics> getStatistics() {
+        return ResponseEntity.ok(documentAnalysisService.getStatistics());
+    }
+
+    @GetMapping("/scheduler")
+    public ResponseEntity<SchedulerStatistics> getSchedulerStatistics() {
+        return ResponseEntity.ok(tenantScheduler.snapshot());
+    }
+
     @GetMapping("/health")
     public ResponseEntity<Map<String, String>> healthCheck() {
         Map<String, String> response = new HashMap<>();
@@ -70,6 +128,65 @@ public class DocumentController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/diagnostics")
+    public ResponseEntity<Map<String, String>> diagnostics(
+            @RequestHeader(value = DIAGNOSTICS_TOKEN_HEADER, required = false) String token) {
+        return diagnosticsResponse(token);
+    }
+
+    @GetMapping("/ready")
+    public ResponseEntity<Map<String, String>> readiness() {
+        // 503 until startup (including the optional warm-up) has finished
+        Map<String, String> readiness = startupService.getReadiness();
+        return startupService.isReady()
+                ? ResponseEntity.ok(readiness)
+                : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(readiness);
+    }
+
+    private ResponseEntity<Object> admissionRejected(AdmissionException e) {
+        return switch (e.getReason()) {
+            case UNSUPPORTED_CONTENT -> ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+                    .body(createErrorResponse(e.getMessage()));
+            case TOO_LARGE -> ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(createErrorResponse(e.getMessage()));
+            case OVERLOADED -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .body(createErrorResponse(e.getMessage()));
+            case EXTRACTION_TIMEOUT -> ResponseEntity.unprocessableEntity()
+                    .body(createErrorResponse(e.getMessage()));
+        };
+    }
+
+    /**
+     * Heap figures for tools/loadtest; only served when analyzer.diagnostics.token
+     * is set and the request carries it
+     */
+    private ResponseEntity<Map<String, String>> diagnosticsResponse(String token) {
+        if (diagnosticsToken.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (token == null || !MessageDigest.isEqual(diagnosticsToken.getBytes(StandardCharsets.UTF_8),
+                token.getBytes(StandardCharsets.UTF_8))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        Map<String, String> response = new HashMap<>();
+        Runtime runtime = Runtime.getRuntime();
+        response.put("heapUsedBytes", String.valueOf(runtime.totalMemory() - runtime.freeMemory()));
+        response.put("heapMaxBytes", String.valueOf(runtime.maxMemory()));
+        return ResponseEntity.ok(response);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private Map<String, String> createPendingResponse(String documentId) {
+        Map<String, String> pending = new HashMap<>();
+        pending.put("id", documentId);
+        pending.put("status", "PENDING");
+        return pending;
+    }
+
     private Map<String, String> createErrorResponse(String message) {
         Map<String, String> error = new HashMap<>();
         error.put("error", message);
@@ -0,0 +1,29 @@
+package com.analyzer.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Binary response formats for the reactive API. Spring MVC registers the
+ * Jackson CBOR and Smile converters on its own when the dataformat jars are
+ * present; WebFlux only does so for Smile, so CBOR is added here.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCodecConfiguration {
+
+    @Bean
+    public CodecCustomizer cborCodecCustomizer() {
+        return configurer -> {
+            ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+            configurer.customCodecs().register(new Jackson2CborEncoder(cborMapper));
+            configurer.customCodecs().register(new Jackson2CborDecoder(cborMapper));
+        };
+    }
+}
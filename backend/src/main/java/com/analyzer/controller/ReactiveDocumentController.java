@@ -0,0 +1,300 @@
+package com.analyzer.controller;
+
+import com.analyzer.admission.AdmissionException;
+import com.analyzer.cluster.AnalysisPendingException;
+import com.analyzer.model.CorpusStatistics;
+import com.analyzer.model.DocumentAnalysis;
+import com.analyzer.model.SchedulerStatistics;
+import com.analyzer.model.SimilarDocument;
+import com.analyzer.revision.UnknownParentException;
+import com.analyzer.scheduling.TenantScheduler;
+import com.analyzer.service.DocumentAnalysisService;
+import com.analyzer.service.StartupService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.multipart.FilePartEvent;
+import org.springframework.http.codec.multipart.PartEvent;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * WebFlux variant of {@link DocumentController}, active when the application
+ * runs with spring.main.web-application-type=reactive.
+ *
+ * The multipart body is consumed as a stream of part events and the file
+ * part is written straight to a temp file as it arrives, so a slow upload
+ * holds no thread and is written to disk only once. CPU-bound
+ * extraction runs on a bounded scheduler and Comprehend is called through
+ * its async client.
+ */
+@RestController
+@RequestMapping("/api/documents")
+@CrossOrigin(origins = "http://localhost:3000") // Allow React frontend
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveDocumentController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveDocumentController.class);
+
+    private static final String RETRY_AFTER_SECONDS = "5";
+    private static final String FILE_PART = "file";
+    private static final String DIAGNOSTICS_TOKEN_HEADER = "X-Diagnostics-Token";
+
+    private final DocumentAnalysisService documentAnalysisService;
+    private final StartupService startupService;
+    private final TenantScheduler tenantScheduler;
+    private final Scheduler extractionScheduler;
+    private final long maxUploadBytes;
+    private final String diagnosticsToken;
+
+    public ReactiveDocumentController(DocumentAnalysisService documentAnalysisService, StartupService startupService,
+            TenantScheduler tenantScheduler,
+            @Value("${analyzer.reactive.extraction-threads:0}") int extractionThreads,
+            @Value("${analyzer.reactive.extraction-queue-size:1000}") int extractionQueueSize,
+            @Value("${analyzer.reactive.max-upload-size:50MB}") DataSize maxUploadSize,
+            @Value("${analyzer.diagnostics.token:}") String diagnosticsToken) {
+        this.documentAnalysisService = documentAnalysisService;
+        this.startupService = startupService;
+        this.tenantScheduler = tenantScheduler;
+        int threads = extractionThreads > 0 ? extractionThreads : Runtime.getRuntime().availableProcessors();
+        this.extractionScheduler = Schedulers.newBoundedElastic(threads, extractionQueueSize, "extraction");
+        this.maxUploadBytes = maxUploadSize.toBytes();
+        this.diagnosticsToken = diagnosticsToken.trim();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        extractionScheduler.dispose();
+    }
+
+    @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Mono<ResponseEntity<Object>> uploadDocument(@RequestBody Flux<PartEvent> parts,
+            @RequestParam(value = "parentId", required = false) String parentId,
+            @RequestHeader(value = TenantScheduler.API_KEY_HEADER, required = false) String apiKey,
+            @RequestHeader(value = TenantScheduler.TENANT_HEADER, required = false) String tenantId,
+            @RequestHeader(value = TenantScheduler.PRIORITY_HEADER, required = false) String priority) {
+        String tenant = tenantScheduler.resolveTenant(apiKey, tenantId);
+        TenantScheduler.Lane lane = TenantScheduler.Lane.fromHeader(priority);
+        String parent = parentId == null || parentId.isBlank() ? null : parentId;
+        // Each window holds the events of one part; other parts are drained
+        return parts.windowUntil(PartEvent::isLast)
+                .concatMap(part -> part.switchOnFirst((first, events) -> {
+                    if (first.get() instanceof FilePartEvent file && FILE_PART.equals(file.name())) {
+                        return receive(file.filename(), events, parent, tenant, lane);
+                    }
+                    return events.doOnNext(event -> DataBufferUtils.release(event.content()))
+                            .then(Mono.<ResponseEntity<Object>>empty());
+                }))
+                .next()
+                .switchIfEmpty(Mono.fromSupplier(() -> badRequest("Please select a file to upload")));
+    }
+
+    /**
+     * Write the file part's content straight from the request to a temp file,
+     * the only copy made, then analyze it
+     */
+    private Mono<ResponseEntity<Object>> receive(String filename, Flux<PartEvent> events, String parentId,
+            String tenant, TenantScheduler.Lane lane) {
+        if (!documentAnalysisService.isValidFileType(filename)) {
+            return Mono.just(badRequest("Unsupported file type. Supported extensions: "
+                    + String.join(", ", documentAnalysisService.getSupportedExtensions())));
+        }
+
+        AtomicLong received = new AtomicLong();
+        Flux<DataBuffer> content = events.map(PartEvent::content).handle((buffer, sink) -> {
+            if (received.addAndGet(buffer.readableByteCount()) > maxUploadBytes) {
+                DataBufferUtils.release(buffer);
+                sink.error(new AdmissionException(AdmissionException.Reason.TOO_LARGE,
+                        "Upload exceeds " + maxUploadBytes + " bytes"));
+            } else {
+                sink.next(buffer);
+            }
+        });
+        return Mono.fromCallable(() -> Files.createTempFile("upload-", ".part"))
+                .subscribeOn(extractionScheduler)
+                .flatMap(upload -> DataBufferUtils
+                        .write(content, upload, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)
+                        .then(Mono.defer(() -> analyze(filename, upload, parentId, tenant, lane)))
+                        .onErrorResume(AdmissionException.class, rejected -> Mono.just(admissionRejected(rejected)))
+                        .doFinally(signal -> deleteQuietly(upload)));
+    }
+
+    private Mono<ResponseEntity<Object>> analyze(String filename, Path upload, String parentId, String tenant,
+            TenantScheduler.Lane lane) {
+        if (upload.toFile().length() == 0) {
+            return Mono.just(badRequest("Please select a file to upload"));
+        }
+
+        return Mono.fromFuture(() -> documentAnalysisService.analyzeDocumentAsync(filename, upload, parentId,
+                        tenant, lane, extractionScheduler::schedule))
+                .map(analysis -> ResponseEntity.<Object>ok(analysis))
+                .onErrorResume(error -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause()
+                            : error;
+                    if (cause instanceof AdmissionException rejected) {
+                        return Mono.just(admissionRejected(rejected));
+                    }
+                    if (cause instanceof UnknownParentException unknown) {
+                        return Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                                .<Object>body(createErrorResponse(unknown.getMessage())));
+                    }
+                    if (cause instanceof AnalysisPendingException pending) {
+                        // Still running on a worker node; the client can poll /{id}/analysis
+                        return Mono.just(ResponseEntity.accepted()
+                                .<Object>body(createPendingResponse(pending.getDocumentId())));
+                    }
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                            .<Object>body(createErrorResponse("Error processing file: " + cause.getMessage())));
+                });
+    }
+
+    @GetMapping("/{id}/analysis")
+    public Mono<ResponseEntity<Object>> getAnalysis(@PathVariable String id) {
+        // The result store may be file-backed, so keep lookups off the event loop
+        return Mono.<ResponseEntity<Object>>fromCallable(() -> {
+            DocumentAnalysis analysis = documentAnalysisService.getAnalysis(id);
+
+            if (analysis == null) {
+                if (documentAnalysisService.isPending(id)) {
+                    return ResponseEntity.accepted().body(createPendingResponse(id));
+                }
+                return ResponseEntity.notFound().build();
+            }
+
+            return ResponseEntity.ok(analysis);
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping("/{id}/similar")
+    public Mono<ResponseEntity<List<SimilarDocument>>> getSimilar(@PathVariable String id,
+            @RequestParam(defaultValue = "10") int k) {
+        // A scan of the whole index, so keep it off the event loop
+        return Mono.fromCallable(() -> {
+            List<SimilarDocument> similar = documentAnalysisService.findSimilar(id, k);
+            return similar != null ? ResponseEntity.ok(similar)
+                    : ResponseEntity.<List<SimilarDocument>>notFound().build();
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping("/all")
+    public Mono<ResponseEntity<Map<String, DocumentAnalysis>>> getAllAnalyses() {
+        return Mono.fromCallable(() -> ResponseEntity.ok(documentAnalysisService.getAllAnalyses()))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping("/stats")
+    public Mono<ResponseEntity<CorpusStatistics>> getStatistics() {
+        // Aggregates are kept up to date on store, so this is cheap enough for the event loop
+        return Mono.just(ResponseEntity.ok(documentAnalysisService.getStatistics()));
+    }
+
+    @GetMapping("/scheduler")
+    public Mono<ResponseEntity<SchedulerStatistics>> getSchedulerStatistics() {
+        return Mono.just(ResponseEntity.ok(tenantScheduler.snapshot()));
+    }
+
+    @GetMapping("/health")
+    public Mono<ResponseEntity<Map<String, String>>> healthCheck() {
+        Map<String, String> response = new HashMap<>();
+        response.put("status", "UP");
+        response.put("service", "Smart Document Analyzer API");
+        return Mono.just(ResponseEntity.ok(response));
+    }
+
+    @GetMapping("/diagnostics")
+    public Mono<ResponseEntity<Map<String, String>>> diagnostics(
+            @RequestHeader(value = DIAGNOSTICS_TOKEN_HEADER, required = false) String token) {
+        return Mono.just(diagnosticsResponse(token));
+    }
+
+    @GetMapping("/ready")
+    public Mono<ResponseEntity<Map<String, String>>> readiness() {
+        Map<String, String> readiness = startupService.getReadiness();
+        return Mono.just(startupService.isReady()
+                ? ResponseEntity.ok(readiness)
+                : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(readiness));
+    }
+
+    /**
+     * Heap figures for tools/loadtest; only served when analyzer.diagnostics.token
+     * is set and the request carries it
+     */
+    private ResponseEntity<Map<String, String>> diagnosticsResponse(String token) {
+        if (diagnosticsToken.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (token == null || !MessageDigest.isEqual(diagnosticsToken.getBytes(StandardCharsets.UTF_8),
+                token.getBytes(StandardCharsets.UTF_8))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        Map<String, String> response = new HashMap<>();
+        Runtime runtime = Runtime.getRuntime();
+        response.put("heapUsedBytes", String.valueOf(runtime.totalMemory() - runtime.freeMemory()));
+        response.put("heapMaxBytes", String.valueOf(runtime.maxMemory()));
+        return ResponseEntity.ok(response);
+    }
+
+    private void deleteQuietly(Path upload) {
+        try {
+            Files.deleteIfExists(upload);
+        } catch (IOException e) {
+            logger.warn("Could not delete temporary upload {}: {}", upload, e.getMessage());
+        }
+    }
+
+    private ResponseEntity<Object> badRequest(String message) {
+        return ResponseEntity.badRequest().body(createErrorResponse(message));
+    }
+
+    private ResponseEntity<Object> admissionRejected(AdmissionException e) {
+        return switch (e.getReason()) {
+            case UNSUPPORTED_CONTENT -> ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+                    .body(createErrorResponse(e.getMessage()));
+            case TOO_LARGE -> ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(createErrorResponse(e.getMessage()));
+            case OVERLOADED -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .body(createErrorResponse(e.getMessage()));
+            case EXTRACTION_TIMEOUT -> ResponseEntity.unprocessableEntity()
+                    .body(createErrorResponse(e.getMessage()));
+        };
+    }
+
+    private Map<String, String> createPendingResponse(String documentId) {
+        Map<String, String> pending = new HashMap<>();
+        pending.put("id", documentId);
+        pending.put("status", "PENDING");
+        return pending;
+    }
+
+    private Map<String, String> createErrorResponse(String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", message);
+        return error;
+    }
+}
@@ -0,0 +1,57 @@
+package com.analyzer.extraction;
+
+import java.io.Writer;
+import java.util.function.Consumer;
+
+/**
+ * Adapts libraries that write their output to a Writer into a chunk sink,
+ * batching small writes so the sink sees reasonably sized chunks.
+ */
+class ChunkWriter extends Writer {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private final Consumer<CharSequence> sink;
+    private final StringBuilder buffer = new StringBuilder(CHUNK_SIZE);
+
+    ChunkWriter(Consumer<CharSequence> sink) {
+        this.sink = sink;
+    }
+
+    @Override
+    public void write(int c) {
+        buffer.append((char) c);
+        if (buffer.length() >= CHUNK_SIZE) {
+            flush();
+        }
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) {
+        buffer.append(chars, offset, length);
+        if (buffer.length() >= CHUNK_SIZE) {
+            flush();
+        }
+    }
+
+    @Override
+    public void write(String text, int offset, int length) {
+        buffer.append(text, offset, offset + length);
+        if (buffer.length() >= CHUNK_SIZE) {
+            flush();
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (buffer.length() > 0) {
+            sink.accept(buffer.toString());
+            buffer.setLength(0);
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+}
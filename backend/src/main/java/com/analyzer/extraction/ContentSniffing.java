@@ -0,0 +1,93 @@
+package com.analyzer.extraction;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Byte-level checks shared by the extractors' sniff implementations
+ */
+final class ContentSniffing {
+
+    private static final byte[] ZIP_MAGIC = { 'P', 'K', 3, 4 };
+
+    private ContentSniffing() {
+    }
+
+    static boolean isZip(byte[] head) {
+        return startsWith(head, 0, ZIP_MAGIC);
+    }
+
+    /**
+     * Whether a ZIP container has an entry under the given path prefix among
+     * the local file headers in the head. Office files list their main
+     * parts early, but the head may not reach them.
+     */
+    static boolean hasZipEntry(byte[] head, String prefix) {
+        return indexOf(head, prefix.getBytes(StandardCharsets.US_ASCII), 0) >= 0;
+    }
+
+    /**
+     * Text without NUL bytes and with few other control characters. UTF-16
+     * and binary formats fail this on their first few bytes.
+     */
+    static boolean isText(byte[] head) {
+        int control = 0;
+        for (byte b : head) {
+            if (b == 0) {
+                return false;
+            }
+            if (b > 0 && b < 0x20 && b != '\n' && b != '\r' && b != '\t' && b != '\f' && b != 0x1b) {
+                control++;
+            }
+        }
+        return control * 20 <= head.length;
+    }
+
+    /**
+     * Offset of the first byte after a UTF-8 BOM and leading whitespace
+     */
+    static int skipPreamble(byte[] head) {
+        int offset = head.length >= 3 && (head[0] & 0xFF) == 0xEF && (head[1] & 0xFF) == 0xBB
+                && (head[2] & 0xFF) == 0xBF ? 3 : 0;
+        while (offset < head.length && Character.isWhitespace(head[offset])) {
+            offset++;
+        }
+        return offset;
+    }
+
+    static boolean startsWith(byte[] head, int offset, byte[] prefix) {
+        if (head.length - offset < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (head[offset + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean startsWithIgnoreCase(byte[] head, int offset, String prefix) {
+        if (head.length - offset < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (Character.toLowerCase((char) head[offset + i]) != Character.toLowerCase(prefix.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int indexOf(byte[] data, byte[] pattern, int from) {
+        outer:
+        for (int i = from; i + pattern.length <= data.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,66 @@
+package com.analyzer.extraction;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Uploaded document content, either in memory or spooled to a file.
+ * Extractors that need random access (PDF, ZIP containers) use the backing
+ * array or file directly; the rest read it as a stream.
+ */
+public final class DocumentSource {
+
+    private final byte[] bytes;
+    private final Path file;
+
+    private DocumentSource(byte[] bytes, Path file) {
+        this.bytes = bytes;
+        this.file = file;
+    }
+
+    public static DocumentSource of(byte[] bytes) {
+        return new DocumentSource(bytes, null);
+    }
+
+    public static DocumentSource of(Path file) {
+        return new DocumentSource(null, file);
+    }
+
+    public InputStream openStream() throws IOException {
+        return bytes != null ? new ByteArrayInputStream(bytes) : Files.newInputStream(file);
+    }
+
+    public long size() throws IOException {
+        return bytes != null ? bytes.length : Files.size(file);
+    }
+
+    /**
+     * Up to maxBytes leading bytes, for content sniffing
+     */
+    public byte[] head(int maxBytes) throws IOException {
+        if (bytes != null) {
+            return bytes.length <= maxBytes ? bytes : Arrays.copyOf(bytes, maxBytes);
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            return in.readNBytes(maxBytes);
+        }
+    }
+
+    /**
+     * The in-memory content, or null when spooled to a file
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    /**
+     * The spooled file, or null when held in memory
+     */
+    public Path getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,46 @@
+package com.analyzer.extraction;
+
+import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Word documents through POI's XWPF model. Word has no event API in POI,
+ * so the document is parsed whole and emitted as one chunk; the admission
+ * layer budgets for that.
+ */
+@Component
+public class DocxTextExtractor implements TextExtractor {
+
+    @Override
+    public String getFormat() {
+        return "docx";
+    }
+
+    @Override
+    public Set<String> getExtensions() {
+        return Set.of("docx");
+    }
+
+    @Override
+    public Match sniff(byte[] head) {
+        if (!ContentSniffing.isZip(head)) {
+            return Match.NONE;
+        }
+        return ContentSniffing.hasZipEntry(head, "word/") ? Match.CERTAIN : Match.POSSIBLE;
+    }
+
+    @Override
+    public void extract(DocumentSource source, Consumer<CharSequence> sink) throws IOException {
+        try (InputStream in = source.openStream();
+                XWPFDocument document = new XWPFDocument(in);
+                XWPFWordExtractor extractor = new XWPFWordExtractor(document)) {
+            sink.accept(extractor.getText());
+        }
+    }
+}
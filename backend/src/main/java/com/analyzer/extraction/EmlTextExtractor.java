@@ -0,0 +1,358 @@
+package com.analyzer.extraction;
+
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * RFC 822/MIME e-mail messages. The message is read line by line: the main
+ * headers are emitted first, then the text/plain and text/html bodies of
+ * the MIME tree (one alternative per multipart/alternative). Attachments
+ * are skipped without being decoded or buffered.
+ */
+@Component
+public class EmlTextExtractor implements TextExtractor {
+
+    private static final List<String> EMITTED_HEADERS = List.of("subject", "from", "to", "cc", "date");
+    // Header names that, seen together at the top of a file, identify a message
+    private static final List<String> SIGNATURE_HEADERS = List.of("from:", "to:", "subject:", "date:",
+            "received:", "mime-version:", "message-id:", "return-path:", "delivered-to:");
+    private static final Pattern HEADER_LINE = Pattern.compile("^[!-9;-~]+:.*");
+    private static final Pattern ENCODED_WORD = Pattern.compile("=\\?([^?]+)\\?([BbQq])\\?([^?]*)\\?=");
+    private static final Pattern BETWEEN_ENCODED_WORDS = Pattern.compile("(\\?=)\\s+(=\\?)");
+    private static final Pattern PARAMETER = Pattern.compile(";\\s*([A-Za-z0-9*-]+)\\s*=\\s*(\"([^\"]*)\"|[^;\\s]+)");
+
+    @Override
+    public String getFormat() {
+        return "eml";
+    }
+
+    @Override
+    public Set<String> getExtensions() {
+        return Set.of("eml");
+    }
+
+    @Override
+    public Match sniff(byte[] head) {
+        if (!ContentSniffing.isText(head)) {
+            return Match.NONE;
+        }
+        String text = new String(head, StandardCharsets.ISO_8859_1);
+        String[] lines = text.split("\r?\n", -1);
+        if (lines.length == 0 || !HEADER_LINE.matcher(lines[0]).matches()) {
+            return Match.NONE;
+        }
+        int known = 0;
+        for (String line : lines) {
+            if (line.isEmpty()) {
+                break;
+            }
+            String lower = line.toLowerCase(Locale.ROOT);
+            if (SIGNATURE_HEADERS.stream().anyMatch(lower::startsWith)) {
+                known++;
+            }
+        }
+        return known >= 2 ? Match.CERTAIN : Match.POSSIBLE;
+    }
+
+    @Override
+    public void extract(DocumentSource source, Consumer<CharSequence> sink) throws IOException {
+        try (InputStream in = new BufferedInputStream(source.openStream())) {
+            LineReader lines = new LineReader(in);
+            Map<String, String> headers = readHeaders(lines);
+
+            StringBuilder summary = new StringBuilder();
+            for (String name : EMITTED_HEADERS) {
+                String value = headers.get(name);
+                if (value != null) {
+                    summary.append(Character.toUpperCase(name.charAt(0))).append(name.substring(1))
+                            .append(": ").append(decodeHeader(value)).append('\n');
+                }
+            }
+            if (summary.length() > 0) {
+                sink.accept(summary.append('\n'));
+            }
+            readEntity(headers, lines, new ArrayDeque<>(), sink);
+        }
+    }
+
+    /**
+     * Read one MIME entity's body, after its headers, up to the next
+     * boundary of an enclosing multipart (left unread for the caller).
+     * Returns whether any text was emitted.
+     */
+    private boolean readEntity(Map<String, String> headers, LineReader lines, Deque<String> boundaries,
+            Consumer<CharSequence> sink) throws IOException {
+        String contentType = headers.getOrDefault("content-type", "text/plain");
+        String mimeType = mimeType(contentType);
+        Map<String, String> parameters = parameters(contentType);
+
+        if (mimeType.startsWith("multipart/") && parameters.containsKey("boundary")) {
+            return readMultipart(mimeType, parameters.get("boundary"), lines, boundaries, sink);
+        }
+
+        boolean attachment = headers.getOrDefault("content-disposition", "")
+                .toLowerCase(Locale.ROOT).startsWith("attachment");
+        boolean text = mimeType.equals("text/plain") || mimeType.equals("text/html");
+        if (attachment || !text) {
+            skipBody(lines, boundaries);
+            return false;
+        }
+
+        Charset charset = charset(parameters.get("charset"));
+        String encoding = headers.getOrDefault("content-transfer-encoding", "7bit").trim().toLowerCase(Locale.ROOT);
+        String body = new String(readBody(lines, boundaries, encoding), charset);
+        if (mimeType.equals("text/html")) {
+            HtmlTextExtractor.strip(new StringReader(body), sink);
+        } else {
+            sink.accept(body);
+        }
+        sink.accept("\n");
+        return !body.isBlank();
+    }
+
+    private boolean readMultipart(String mimeType, String boundary, LineReader lines, Deque<String> boundaries,
+            Consumer<CharSequence> sink) throws IOException {
+        boolean alternative = mimeType.equals("multipart/alternative");
+        boolean emitted = false;
+        String delimiter = "--" + boundary;
+
+        // Skip the preamble up to the first delimiter
+        String line;
+        while ((line = lines.next()) != null && !line.startsWith(delimiter)) {
+            if (isEnclosingBoundary(line, boundaries)) {
+                lines.pushBack(line);
+                return false;
+            }
+        }
+        boundaries.push(delimiter);
+        try {
+            while (line != null && line.startsWith(delimiter) && !line.startsWith(delimiter + "--")) {
+                Map<String, String> partHeaders = readHeaders(lines);
+                if (alternative && emitted) {
+                    // Only the first readable alternative; the rest repeat it
+                    skipBody(lines, boundaries);
+                } else {
+                    emitted |= readEntity(partHeaders, lines, boundaries, sink);
+                }
+                line = lines.next();
+            }
+        } finally {
+            boundaries.pop();
+        }
+        // The epilogue after the closing delimiter belongs to no part
+        skipBody(lines, boundaries);
+        return emitted;
+    }
+
+    private static void skipBody(LineReader lines, Deque<String> boundaries) throws IOException {
+        String line;
+        while ((line = lines.next()) != null) {
+            if (isEnclosingBoundary(line, boundaries)) {
+                lines.pushBack(line);
+                return;
+            }
+        }
+    }
+
+    private static byte[] readBody(LineReader lines, Deque<String> boundaries, String encoding) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        StringBuilder base64 = new StringBuilder();
+        String line;
+        while ((line = lines.next()) != null) {
+            if (isEnclosingBoundary(line, boundaries)) {
+                lines.pushBack(line);
+                break;
+            }
+            switch (encoding) {
+                case "base64" -> base64.append(line.strip());
+                case "quoted-printable" -> decodeQuotedPrintableLine(line, body);
+                default -> {
+                    body.writeBytes(line.getBytes(StandardCharsets.ISO_8859_1));
+                    body.write('\n');
+                }
+            }
+        }
+        if (base64.length() > 0) {
+            try {
+                body.writeBytes(Base64.getMimeDecoder().decode(base64.toString()));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Malformed base64 body", e);
+            }
+        }
+        return body.toByteArray();
+    }
+
+    private static void decodeQuotedPrintableLine(String line, ByteArrayOutputStream out) {
+        String content = line.stripTrailing();
+        boolean softBreak = content.endsWith("=");
+        int end = softBreak ? content.length() - 1 : content.length();
+        for (int i = 0; i < end; i++) {
+            char c = content.charAt(i);
+            if (c == '=' && i + 2 < end
+                    && Character.digit(content.charAt(i + 1), 16) >= 0
+                    && Character.digit(content.charAt(i + 2), 16) >= 0) {
+                out.write(Integer.parseInt(content, i + 1, i + 3, 16));
+                i += 2;
+            } else {
+                out.write(c);
+            }
+        }
+        if (!softBreak) {
+            out.write('\n');
+        }
+    }
+
+    private static boolean isEnclosingBoundary(String line, Deque<String> boundaries) {
+        if (!line.startsWith("--")) {
+            return false;
+        }
+        for (String delimiter : boundaries) {
+            if (line.startsWith(delimiter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Read a header block up to the empty line, unfolding continuation lines.
+     * Names are lower-cased; the first occurrence of a header wins.
+     */
+    private static Map<String, String> readHeaders(LineReader lines) throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        String name = null;
+        StringBuilder value = new StringBuilder();
+        String line;
+        while ((line = lines.next()) != null && !line.isEmpty()) {
+            if ((line.charAt(0) == ' ' || line.charAt(0) == '\t') && name != null) {
+                value.append(' ').append(line.strip());
+                continue;
+            }
+            if (name != null) {
+                headers.putIfAbsent(name, value.toString());
+            }
+            int colon = line.indexOf(':');
+            if (colon <= 0) {
+                name = null;
+                continue;
+            }
+            name = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            value.setLength(0);
+            value.append(line.substring(colon + 1).strip());
+        }
+        if (name != null) {
+            headers.putIfAbsent(name, value.toString());
+        }
+        return headers;
+    }
+
+    /**
+     * Decode RFC 2047 encoded words; header bytes are otherwise taken as UTF-8
+     */
+    private static String decodeHeader(String raw) {
+        String value = new String(raw.getBytes(StandardCharsets.ISO_8859_1), StandardCharsets.UTF_8);
+        value = BETWEEN_ENCODED_WORDS.matcher(value).replaceAll("$1$2");
+        Matcher matcher = ENCODED_WORD.matcher(value);
+        StringBuilder decoded = new StringBuilder();
+        while (matcher.find()) {
+            Charset charset = charset(matcher.group(1));
+            String text = matcher.group(3);
+            byte[] bytes;
+            try {
+                if (matcher.group(2).equalsIgnoreCase("B")) {
+                    bytes = Base64.getDecoder().decode(text);
+                } else {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    decodeQuotedPrintableLine(text.replace('_', ' ') + "=", out);
+                    bytes = out.toByteArray();
+                }
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            matcher.appendReplacement(decoded, Matcher.quoteReplacement(new String(bytes, charset)));
+        }
+        matcher.appendTail(decoded);
+        return decoded.toString();
+    }
+
+    private static String mimeType(String contentType) {
+        int semicolon = contentType.indexOf(';');
+        return (semicolon >= 0 ? contentType.substring(0, semicolon) : contentType).trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Map<String, String> parameters(String contentType) {
+        Map<String, String> parameters = new HashMap<>();
+        Matcher matcher = PARAMETER.matcher(contentType);
+        while (matcher.find()) {
+            String value = matcher.group(3) != null ? matcher.group(3) : matcher.group(2);
+            parameters.putIfAbsent(matcher.group(1).toLowerCase(Locale.ROOT), value);
+        }
+        return parameters;
+    }
+
+    private static Charset charset(String name) {
+        if (name == null) {
+            // US-ASCII by the RFC; UTF-8 is a superset and what unlabelled mail usually is
+            return StandardCharsets.UTF_8;
+        }
+        try {
+            return Charset.forName(name.trim());
+        } catch (IllegalArgumentException e) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+
+    /**
+     * Lines as ISO-8859-1 strings, so bytes survive until the part's charset
+     * is known, with one line of push-back for boundary handling
+     */
+    private static class LineReader {
+        private final InputStream in;
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        private String pushedBack;
+
+        LineReader(InputStream in) {
+            this.in = in;
+        }
+
+        String next() throws IOException {
+            if (pushedBack != null) {
+                String pending = pushedBack;
+                pushedBack = null;
+                return pending;
+            }
+            line.reset();
+            int b;
+            while ((b = in.read()) >= 0 && b != '\n') {
+                line.write(b);
+            }
+            if (b < 0 && line.size() == 0) {
+                return null;
+            }
+            String text = line.toString(StandardCharsets.ISO_8859_1);
+            return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+        }
+
+        void pushBack(String pending) {
+            pushedBack = pending;
+        }
+    }
+}
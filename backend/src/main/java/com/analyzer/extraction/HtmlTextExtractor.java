@@ -0,0 +1,265 @@
+package com.analyzer.extraction;
+
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * HTML through a single-pass tag stripper: markup, comments, scripts and
+ * styles are dropped, block elements become line breaks, character
+ * references are decoded and whitespace is collapsed. No DOM is built.
+ */
+@Component
+public class HtmlTextExtractor implements TextExtractor {
+
+    // Elements whose content is not document text
+    private static final Set<String> SKIPPED_ELEMENTS = Set.of("script", "style", "noscript", "template", "svg");
+    private static final Set<String> BLOCK_ELEMENTS = Set.of("address", "article", "aside", "blockquote", "br",
+            "dd", "div", "dl", "dt", "figcaption", "figure", "footer", "form", "h1", "h2", "h3", "h4", "h5", "h6",
+            "header", "hr", "li", "main", "nav", "ol", "p", "pre", "section", "table", "title", "tr", "ul");
+    private static final Map<String, String> ENTITIES = Map.ofEntries(
+            Map.entry("amp", "&"), Map.entry("lt", "<"), Map.entry("gt", ">"), Map.entry("quot", "\""),
+            Map.entry("apos", "'"), Map.entry("nbsp", " "), Map.entry("ndash", "\u2013"),
+            Map.entry("mdash", "\u2014"), Map.entry("hellip", "\u2026"), Map.entry("lsquo", "\u2018"),
+            Map.entry("rsquo", "\u2019"), Map.entry("ldquo", "\u201c"), Map.entry("rdquo", "\u201d"),
+            Map.entry("copy", "\u00a9"), Map.entry("reg", "\u00ae"), Map.entry("trade", "\u2122"),
+            Map.entry("euro", "\u20ac"), Map.entry("pound", "\u00a3"), Map.entry("bull", "\u2022"),
+            Map.entry("agrave", "\u00e0"), Map.entry("aacute", "\u00e1"), Map.entry("acirc", "\u00e2"),
+            Map.entry("auml", "\u00e4"), Map.entry("ccedil", "\u00e7"), Map.entry("egrave", "\u00e8"),
+            Map.entry("eacute", "\u00e9"), Map.entry("ecirc", "\u00ea"), Map.entry("iacute", "\u00ed"),
+            Map.entry("ntilde", "\u00f1"), Map.entry("oacute", "\u00f3"), Map.entry("ouml", "\u00f6"),
+            Map.entry("uacute", "\u00fa"), Map.entry("uuml", "\u00fc"), Map.entry("szlig", "\u00df"));
+    private static final int MAX_ENTITY_LENGTH = 10;
+
+    @Override
+    public String getFormat() {
+        return "html";
+    }
+
+    @Override
+    public Set<String> getExtensions() {
+        return Set.of("html", "htm", "xhtml");
+    }
+
+    @Override
+    public Match sniff(byte[] head) {
+        if (!ContentSniffing.isText(head)) {
+            return Match.NONE;
+        }
+        int start = ContentSniffing.skipPreamble(head);
+        if (ContentSniffing.startsWithIgnoreCase(head, start, "<!doctype html")
+                || ContentSniffing.startsWithIgnoreCase(head, start, "<html")) {
+            return Match.CERTAIN;
+        }
+        return Match.POSSIBLE;
+    }
+
+    @Override
+    public void extract(DocumentSource source, Consumer<CharSequence> sink) throws IOException {
+        try (Reader reader = new InputStreamReader(source.openStream(), StandardCharsets.UTF_8)) {
+            strip(reader, sink);
+        }
+    }
+
+    /**
+     * Strip markup from an HTML character stream; also used for the HTML
+     * bodies of e-mail messages
+     */
+    static void strip(Reader html, Consumer<CharSequence> sink) throws IOException {
+        Reader in = html instanceof BufferedReader ? html : new BufferedReader(html);
+        try (ChunkWriter out = new ChunkWriter(sink)) {
+            new Stripper(in, out).run();
+        }
+    }
+
+    private static class Stripper {
+        private final Reader in;
+        private final ChunkWriter out;
+        private int pendingBreaks;
+        private boolean pendingSpace;
+        private boolean atLineStart = true;
+        private int preDepth;
+
+        Stripper(Reader in, ChunkWriter out) {
+            this.in = in;
+            this.out = out;
+        }
+
+        void run() throws IOException {
+            int c;
+            while ((c = in.read()) >= 0) {
+                if (c == '<') {
+                    readMarkup();
+                } else if (c == '&') {
+                    text(readReference());
+                } else {
+                    text((char) c);
+                }
+            }
+        }
+
+        private void readMarkup() throws IOException {
+            int c = in.read();
+            if (c == '!') {
+                int first = in.read();
+                if (first == '-' && in.read() == '-') {
+                    skipPast("-->");
+                } else {
+                    skipTag(first);
+                }
+                return;
+            }
+            if (c == '?') {
+                skipTag(c);
+                return;
+            }
+
+            boolean closing = c == '/';
+            if (closing) {
+                c = in.read();
+            }
+            if (!Character.isLetter(c)) {
+                // Not a tag, e.g. "a < b"
+                text('<');
+                if (closing) {
+                    text('/');
+                }
+                if (c >= 0) {
+                    text((char) c);
+                }
+                return;
+            }
+
+            StringBuilder name = new StringBuilder();
+            while (c >= 0 && (Character.isLetterOrDigit(c) || c == '-' || c == ':')) {
+                name.append(Character.toLowerCase((char) c));
+                c = in.read();
+            }
+            skipTag(c);
+
+            String element = name.toString();
+            if (!closing && SKIPPED_ELEMENTS.contains(element)) {
+                skipPast("</" + element);
+                skipTag(in.read());
+                return;
+            }
+            if (element.equals("pre")) {
+                preDepth = Math.max(0, preDepth + (closing ? -1 : 1));
+            }
+            if (BLOCK_ELEMENTS.contains(element)) {
+                boolean paragraph = element.equals("p") || element.charAt(0) == 'h' && element.length() == 2;
+                pendingBreaks = Math.max(pendingBreaks, paragraph ? 2 : 1);
+            } else if (element.equals("td") || element.equals("th")) {
+                pendingSpace = true;
+            }
+        }
+
+        /**
+         * Skip the rest of a tag from the given character, honouring quoted
+         * attribute values that may contain '>'
+         */
+        private void skipTag(int c) throws IOException {
+            int quote = 0;
+            while (c >= 0) {
+                if (quote != 0) {
+                    if (c == quote) {
+                        quote = 0;
+                    }
+                } else if (c == '"' || c == '\'') {
+                    quote = c;
+                } else if (c == '>') {
+                    return;
+                }
+                c = in.read();
+            }
+        }
+
+        private void skipPast(String terminator) throws IOException {
+            int matched = 0;
+            int c;
+            while ((c = in.read()) >= 0) {
+                if (Character.toLowerCase(c) == terminator.charAt(matched)) {
+                    if (++matched == terminator.length()) {
+                        return;
+                    }
+                } else {
+                    matched = Character.toLowerCase(c) == terminator.charAt(0) ? 1 : 0;
+                }
+            }
+        }
+
+        private String readReference() throws IOException {
+            StringBuilder reference = new StringBuilder();
+            in.mark(MAX_ENTITY_LENGTH + 1);
+            int c;
+            while ((c = in.read()) >= 0 && reference.length() < MAX_ENTITY_LENGTH) {
+                if (c == ';') {
+                    String decoded = decode(reference.toString());
+                    if (decoded != null) {
+                        return decoded;
+                    }
+                    break;
+                }
+                if (!Character.isLetterOrDigit(c) && c != '#') {
+                    break;
+                }
+                reference.append((char) c);
+            }
+            // Not a reference; emit the ampersand and re-read what followed as text
+            in.reset();
+            return "&";
+        }
+
+        private static String decode(String reference) {
+            if (reference.startsWith("#")) {
+                try {
+                    int codePoint = reference.startsWith("#x") || reference.startsWith("#X")
+                            ? Integer.parseInt(reference.substring(2), 16)
+                            : Integer.parseInt(reference.substring(1));
+                    return Character.isValidCodePoint(codePoint) ? new String(Character.toChars(codePoint)) : null;
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+            String decoded = ENTITIES.get(reference);
+            if (decoded == null && Character.isUpperCase(reference.charAt(0))) {
+                // Capitals of the accented letters above, e.g. &Eacute;
+                decoded = ENTITIES.get(reference.toLowerCase(Locale.ROOT));
+                return decoded != null && decoded.length() == 1 ? decoded.toUpperCase(Locale.ROOT) : decoded;
+            }
+            return decoded;
+        }
+
+        private void text(String text) {
+            for (int i = 0; i < text.length(); i++) {
+                text(text.charAt(i));
+            }
+        }
+
+        private void text(char c) {
+            if (preDepth == 0 && Character.isWhitespace(c)) {
+                pendingSpace = true;
+                return;
+            }
+            if (pendingBreaks > 0 && !atLineStart) {
+                for (int i = 0; i < Math.min(pendingBreaks, 2); i++) {
+                    out.write('\n');
+                }
+            } else if (pendingSpace && !atLineStart) {
+                out.write(' ');
+            }
+            pendingBreaks = 0;
+            pendingSpace = false;
+            out.write(c);
+            atLineStart = c == '\n';
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.analyzer.extraction;
+
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Markdown, line by line: block markers, emphasis, link targets and inline
+ * HTML are removed so only the prose reaches the analyzers. Fenced code is
+ * kept as text.
+ */
+@Component
+public class MarkdownTextExtractor implements TextExtractor {
+
+    private static final Pattern FENCE = Pattern.compile("^\\s{0,3}(```|~~~).*");
+    private static final Pattern RULE_OR_UNDERLINE = Pattern.compile("^\\s{0,3}([-*_=]\\s*){3,}$");
+    private static final Pattern TABLE_DELIMITER = Pattern.compile("^\\s*\\|?\\s*:?-{3,}:?\\s*(\\|\\s*:?-{3,}:?\\s*)*\\|?\\s*$");
+    private static final Pattern LINK_DEFINITION = Pattern.compile("^\\s{0,3}\\[[^\\]]+]:\\s+\\S+.*$");
+    private static final Pattern BLOCK_PREFIX = Pattern.compile("^\\s*(>\\s?)*(#{1,6}\\s+|[-*+]\\s+(\\[[ xX]]\\s+)?|\\d{1,9}[.)]\\s+)?");
+    private static final Pattern CLOSING_HASHES = Pattern.compile("\\s+#+\\s*$");
+    private static final Pattern IMAGE_OR_LINK = Pattern.compile("!?\\[([^\\]]*)](\\([^)]*\\)|\\[[^\\]]*])");
+    private static final Pattern AUTOLINK = Pattern.compile("<((?:https?|mailto):[^>\\s]+)>");
+    private static final Pattern INLINE_HTML = Pattern.compile("</?[A-Za-z][^>]*>");
+    private static final Pattern EMPHASIS = Pattern.compile("(?<!\\\\)(\\*{1,3}|~~|`+)|(?<![\\p{L}\\p{N}])_{1,3}|_{1,3}(?![\\p{L}\\p{N}])");
+    private static final Pattern TABLE_PIPE = Pattern.compile("\\s*\\|\\s*");
+    private static final Pattern ESCAPE = Pattern.compile("\\\\([\\p{Punct}])");
+
+    @Override
+    public String getFormat() {
+        return "md";
+    }
+
+    @Override
+    public Set<String> getExtensions() {
+        return Set.of("md", "markdown");
+    }
+
+    @Override
+    public Match sniff(byte[] head) {
+        // Markdown is plain text by design; only the extension can claim it
+        return ContentSniffing.isText(head) ? Match.POSSIBLE : Match.NONE;
+    }
+
+    @Override
+    public void extract(DocumentSource source, Consumer<CharSequence> sink) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(source.openStream(), StandardCharsets.UTF_8));
+                ChunkWriter out = new ChunkWriter(sink)) {
+            boolean inFence = false;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (FENCE.matcher(line).matches()) {
+                    inFence = !inFence;
+                    continue;
+                }
+                if (inFence) {
+                    out.write(line);
+                } else if (TABLE_DELIMITER.matcher(line).matches() || LINK_DEFINITION.matcher(line).matches()) {
+                    continue;
+                } else if (!RULE_OR_UNDERLINE.matcher(line).matches()) {
+                    out.write(stripInline(line));
+                }
+                out.write('\n');
+            }
+        }
+    }
+
+    private static String stripInline(String line) {
+        String text = BLOCK_PREFIX.matcher(line).replaceFirst("");
+        text = CLOSING_HASHES.matcher(text).replaceFirst("");
+        text = IMAGE_OR_LINK.matcher(text).replaceAll("$1");
+        text = AUTOLINK.matcher(text).replaceAll("$1");
+        text = INLINE_HTML.matcher(text).replaceAll("");
+        text = EMPHASIS.matcher(text).replaceAll("");
+        text = ESCAPE.matcher(text).replaceAll("$1");
+        if (text.indexOf('|') >= 0) {
+            // Table row: cells become space separated
+            text = TABLE_PIPE.matcher(text).replaceAll(" ").strip();
+        }
+        return text;
+    }
+}
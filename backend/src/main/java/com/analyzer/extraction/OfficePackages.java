@@ -0,0 +1,38 @@
+package com.analyzer.extraction;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Opens OOXML packages read-only, straight from the spooled file when there
+ * is one so POI reads entries on demand instead of inflating the whole zip
+ */
+final class OfficePackages {
+
+    private OfficePackages() {
+    }
+
+    static OPCPackage open(DocumentSource source) throws IOException {
+        try {
+            if (source.getFile() != null) {
+                return OPCPackage.open(source.getFile().toFile(), PackageAccess.READ);
+            }
+            try (InputStream in = source.openStream()) {
+                return OPCPackage.open(in);
+            }
+        } catch (InvalidFormatException e) {
+            throw new IOException("Not an Office Open XML package: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Close without writing anything back
+     */
+    static void close(OPCPackage pkg) {
+        pkg.revert();
+    }
+}
@@ -0,0 +1,79 @@
+package com.analyzer.extraction;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * PDF through PDFBox; text is streamed out as the stripper writes it, page
+ * by page
+ */
+@Component
+public class PdfTextExtractor implements TextExtractor {
+
+    private static final byte[] PDF_MAGIC = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+    // The header may follow some junk bytes
+    private static final int MAGIC_SEARCH_LENGTH = 1024;
+
+    @Override
+    public String getFormat() {
+        return "pdf";
+    }
+
+    @Override
+    public Set<String> getExtensions() {
+        return Set.of("pdf");
+    }
+
+    @Override
+    public Match sniff(byte[] head) {
+        int index = ContentSniffing.indexOf(head, PDF_MAGIC, 0);
+        return index >= 0 && index < MAGIC_SEARCH_LENGTH ? Match.CERTAIN : Match.NONE;
+    }
+
+    @Override
+    public void extract(DocumentSource source, Consumer<CharSequence> sink) throws IOException {
+        try (PDDocument document = load(source); ChunkWriter writer = new ChunkWriter(sink)) {
+            newStripper().writeText(document, writer);
+        }
+    }
+
+    private static PDDocument load(DocumentSource source) throws IOException {
+        if (source.getBytes() != null) {
+            return Loader.loadPDF(source.getBytes());
+        }
+        // PDFBox reads the file through a buffered random-access view instead of a byte[]
+        if (source.getFile() != null) {
+            return Loader.loadPDF(source.getFile().toFile());
+        }
+        try (InputStream in = source.openStream()) {
+            return Loader.loadPDF(new RandomAccessReadBuffer(in));
+        }
+    }
+
+    /**
+     * PDFBox never checks for interruption, so stop between pages ourselves
+     * when an extraction timeout cancels us
+     */
+    private static PDFTextStripper newStripper() {
+        return new PDFTextStripper() {
+            @Override
+            protected void startPage(PDPage page) throws IOException {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Extraction cancelled");
+                }
+                super.startPage(page);
+            }
+        };
+    }
+}
@@ -0,0 +1,45 @@
+package com.analyzer.extraction;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * UTF-8 plain text, read in fixed-size chunks
+ */
+@Component
+public class PlainTextExtractor implements TextExtractor {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    @Override
+    public String getFormat() {
+        return "txt";
+    }
+
+    @Override
+    public Set<String> getExtensions() {
+        return Set.of("txt");
+    }
+
+    @Override
+    public Match sniff(byte[] head) {
+        return ContentSniffing.isText(head) ? Match.POSSIBLE : Match.NONE;
+    }
+
+    @Override
+    public void extract(DocumentSource source, Consumer<CharSequence> sink) throws IOException {
+        try (Reader reader = new InputStreamReader(source.openStream(), StandardCharsets.UTF_8)) {
+            char[] buffer = new char[CHUNK_SIZE];
+            int read;
+            while ((read = reader.read(buffer)) > 0) {
+                sink.accept(new String(buffer, 0, read));
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.analyzer.extraction;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackageRelationship;
+import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
+import org.apache.poi.util.XMLHelper;
+import org.springframework.stereotype.Component;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * PowerPoint presentations read part by part with SAX: the slide order
+ * comes from presentation.xml, then each slide's text runs are emitted as
+ * one chunk. No slide show object model is built.
+ */
+@Component
+public class PptxTextExtractor implements TextExtractor {
+
+    private static final String PRESENTATION_NS = "http://schemas.openxmlformats.org/presentationml/2006/main";
+    private static final String DRAWING_NS = "http://schemas.openxmlformats.org/drawingml/2006/main";
+    private static final String RELATIONSHIPS_NS =
+            "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    @Override
+    public String getFormat() {
+        return "pptx";
+    }
+
+    @Override
+    public Set<String> getExtensions() {
+        return Set.of("pptx");
+    }
+
+    @Override
+    public Match sniff(byte[] head) {
+        if (!ContentSniffing.isZip(head)) {
+            return Match.NONE;
+        }
+        return ContentSniffing.hasZipEntry(head, "ppt/") ? Match.CERTAIN : Match.POSSIBLE;
+    }
+
+    @Override
+    public void extract(DocumentSource source, Consumer<CharSequence> sink) throws IOException {
+        OPCPackage pkg = OfficePackages.open(source);
+        try {
+            List<PackagePart> roots = pkg.getPartsByRelationshipType(PackageRelationshipTypes.CORE_DOCUMENT);
+            if (roots.isEmpty()) {
+                throw new IOException("Presentation has no main document part");
+            }
+            PackagePart presentation = roots.get(0);
+
+            SlideOrder order = new SlideOrder();
+            parse(presentation, order);
+            for (String relationshipId : order.relationshipIds) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Extraction cancelled");
+                }
+                PackageRelationship relationship = presentation.getRelationship(relationshipId);
+                if (relationship == null) {
+                    continue;
+                }
+                PackagePart slide = presentation.getRelatedPart(relationship);
+                SlideText text = new SlideText();
+                parse(slide, text);
+                if (text.text.length() > 0) {
+                    // Blank line between slides
+                    sink.accept(text.text.append('\n'));
+                }
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Unreadable presentation: " + e.getMessage(), e);
+        } finally {
+            OfficePackages.close(pkg);
+        }
+    }
+
+    private static void parse(PackagePart part, DefaultHandler handler)
+            throws IOException, SAXException, ParserConfigurationException {
+        try (InputStream in = part.getInputStream()) {
+            XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(handler);
+            parser.parse(new InputSource(in));
+        }
+    }
+
+    /**
+     * Collects the relationship ids of p:sldIdLst in presentation order
+     */
+    private static class SlideOrder extends DefaultHandler {
+        final List<String> relationshipIds = new ArrayList<>();
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if (PRESENTATION_NS.equals(uri) && "sldId".equals(localName)) {
+                String id = attributes.getValue(RELATIONSHIPS_NS, "id");
+                if (id != null) {
+                    relationshipIds.add(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects a:t runs; every a:p paragraph ends a line
+     */
+    private static class SlideText extends DefaultHandler {
+        final StringBuilder text = new StringBuilder();
+        private boolean inRun;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if (DRAWING_NS.equals(uri) && "t".equals(localName)) {
+                inRun = true;
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            if (!DRAWING_NS.equals(uri)) {
+                return;
+            }
+            if ("t".equals(localName)) {
+                inRun = false;
+            } else if ("p".equals(localName) && text.length() > 0 && text.charAt(text.length() - 1) != '\n') {
+                text.append('\n');
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inRun) {
+                text.append(ch, start, length);
+            }
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.analyzer.extraction;
+
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * RTF through a streaming tokenizer. Only the visible text is kept:
+ * font/colour/style tables, metadata, pictures and field instructions are
+ * skipped, escaped characters are decoded in the document's code page.
+ */
+@Component
+public class RtfTextExtractor implements TextExtractor {
+
+    private static final String RTF_MAGIC = "{\\rtf";
+    private static final Charset DEFAULT_CHARSET = Charset.forName("windows-1252");
+    // Destinations that never hold document text
+    private static final Set<String> SKIPPED_DESTINATIONS = Set.of("fonttbl", "colortbl", "stylesheet", "info",
+            "pict", "object", "header", "headerl", "headerr", "headerf", "footer", "footerl", "footerr", "footerf",
+            "fldinst", "themedata", "colorschememapping", "latentstyles", "datastore", "listtable",
+            "listoverridetable", "rsidtbl", "generator", "filetbl", "revtbl", "xmlnstbl", "bkmkstart", "bkmkend");
+    private static final int MAX_CONTROL_WORD = 32;
+
+    @Override
+    public String getFormat() {
+        return "rtf";
+    }
+
+    @Override
+    public Set<String> getExtensions() {
+        return Set.of("rtf");
+    }
+
+    @Override
+    public Match sniff(byte[] head) {
+        int start = ContentSniffing.skipPreamble(head);
+        return ContentSniffing.startsWith(head, start, RTF_MAGIC.getBytes(DEFAULT_CHARSET))
+                ? Match.CERTAIN : Match.NONE;
+    }
+
+    @Override
+    public void extract(DocumentSource source, Consumer<CharSequence> sink) throws IOException {
+        try (InputStream in = new BufferedInputStream(source.openStream());
+                ChunkWriter out = new ChunkWriter(sink)) {
+            new Parser(in, out).run();
+        }
+    }
+
+    private static class Parser {
+        private final InputStream in;
+        private final ChunkWriter out;
+        private final Deque<GroupState> groups = new ArrayDeque<>();
+        private GroupState state = new GroupState();
+        private Charset charset = DEFAULT_CHARSET;
+        // Fallback characters still to drop after a Unicode escape
+        private int pendingSkip;
+        private int pushback = -1;
+
+        Parser(InputStream in, ChunkWriter out) {
+            this.in = in;
+            this.out = out;
+        }
+
+        void run() throws IOException {
+            int c;
+            while ((c = read()) >= 0) {
+                switch (c) {
+                    case '{' -> {
+                        groups.push(state);
+                        state = state.copy();
+                    }
+                    case '}' -> {
+                        if (!groups.isEmpty()) {
+                            state = groups.pop();
+                        }
+                    }
+                    case '\\' -> readControl();
+                    case '\r', '\n' -> {
+                        // Line breaks in the source are not significant
+                    }
+                    default -> emit((char) c);
+                }
+            }
+        }
+
+        private void readControl() throws IOException {
+            int c = read();
+            if (c < 0) {
+                return;
+            }
+            if (isAsciiLetter(c)) {
+                readControlWord(c);
+                return;
+            }
+            switch (c) {
+                case '\'' -> emitByte(readHexByte());
+                case '*' -> state.ignorableDestination = true;
+                case '~' -> emit(' ');
+                case '_' -> emit('-');
+                case '\r', '\n' -> emit('\n');
+                case '-' -> {
+                    // Optional hyphen
+                }
+                default -> emit((char) c);
+            }
+        }
+
+        private void readControlWord(int first) throws IOException {
+            StringBuilder word = new StringBuilder();
+            int c = first;
+            while (c >= 0 && isAsciiLetter(c) && word.length() < MAX_CONTROL_WORD) {
+                word.append((char) c);
+                c = read();
+            }
+            boolean hasParameter = false;
+            boolean negative = false;
+            int parameter = 0;
+            if (c == '-') {
+                negative = true;
+                c = read();
+            }
+            while (c >= '0' && c <= '9') {
+                hasParameter = true;
+                parameter = parameter * 10 + (c - '0');
+                c = read();
+            }
+            if (negative) {
+                parameter = -parameter;
+            }
+            // A single space delimits the control word and is not text
+            if (c != ' ' && c >= 0) {
+                pushback = c;
+            }
+            apply(word.toString(), hasParameter, parameter);
+        }
+
+        private void apply(String word, boolean hasParameter, int parameter) {
+            // The control word after \* names an optional destination; readers that do not know it skip it
+            if (state.ignorableDestination || SKIPPED_DESTINATIONS.contains(word)) {
+                state.skipping = true;
+                return;
+            }
+            switch (word) {
+                case "ansicpg" -> charset = codePage(parameter);
+                case "uc" -> state.fallbackLength = hasParameter ? Math.max(0, parameter) : 1;
+                case "u" -> {
+                    emitDirect((char) (parameter < 0 ? parameter + 0x10000 : parameter));
+                    pendingSkip = state.fallbackLength;
+                }
+                case "par", "line", "sect", "page", "row" -> emitDirect('\n');
+                case "tab", "cell" -> emitDirect('\t');
+                case "emdash" -> emitDirect('\u2014');
+                case "endash" -> emitDirect('\u2013');
+                case "bullet" -> emitDirect('\u2022');
+                case "lquote" -> emitDirect('\u2018');
+                case "rquote" -> emitDirect('\u2019');
+                case "ldblquote" -> emitDirect('\u201c');
+                case "rdblquote" -> emitDirect('\u201d');
+                default -> {
+                    // Formatting; no text
+                }
+            }
+        }
+
+        private int readHexByte() throws IOException {
+            int high = Character.digit(read(), 16);
+            int low = Character.digit(read(), 16);
+            return high < 0 || low < 0 ? '?' : high << 4 | low;
+        }
+
+        private void emitByte(int b) {
+            if (consumeFallback()) {
+                return;
+            }
+            emitDirect(charset.decode(ByteBuffer.wrap(new byte[] {(byte) b})).charAt(0));
+        }
+
+        private void emit(char c) {
+            if (!consumeFallback()) {
+                emitDirect(c);
+            }
+        }
+
+        private void emitDirect(char c) {
+            if (!state.skipping) {
+                out.write(c);
+            }
+        }
+
+        private boolean consumeFallback() {
+            if (pendingSkip > 0) {
+                pendingSkip--;
+                return true;
+            }
+            return false;
+        }
+
+        private int read() throws IOException {
+            if (pushback >= 0) {
+                int c = pushback;
+                pushback = -1;
+                return c;
+            }
+            return in.read();
+        }
+
+        private static boolean isAsciiLetter(int c) {
+            return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
+        }
+
+        private static Charset codePage(int codePage) {
+            try {
+                return Charset.forName(codePage == 65001 ? "UTF-8" : "windows-" + codePage);
+            } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+                return DEFAULT_CHARSET;
+            }
+        }
+    }
+
+    private static class GroupState {
+        boolean skipping;
+        boolean ignorableDestination;
+        int fallbackLength = 1;
+
+        GroupState copy() {
+            GroupState copy = new GroupState();
+            copy.skipping = skipping;
+            copy.fallbackLength = fallbackLength;
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.analyzer.extraction;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Extracts plain text from one document format.
+ *
+ * Implementations are Spring beans picked up by {@link TextExtractorRegistry};
+ * the formats in analyzer.extraction.formats are enabled. The registry picks
+ * an extractor by sniffing the leading bytes of the upload, using the file
+ * extension only to break ties between formats that look alike (ZIP-based
+ * Office files, the various plain-text formats).
+ *
+ * Text is delivered to the sink in chunks as it is decoded, so an extractor
+ * never needs to hold the whole document text itself.
+ */
+public interface TextExtractor {
+
+    enum Match {
+        // Content cannot be this format
+        NONE,
+        // Content is compatible but carries no signature, e.g. plain text
+        POSSIBLE,
+        // Content carries this format's signature
+        CERTAIN
+    }
+
+    /**
+     * Format name used in configuration and stored as the analysis file type
+     */
+    String getFormat();
+
+    /**
+     * Lower-case file extensions, without the dot, that this format claims
+     */
+    Set<String> getExtensions();
+
+    Match sniff(byte[] head);
+
+    void extract(DocumentSource source, Consumer<CharSequence> sink) throws IOException;
+}
@@ -0,0 +1,135 @@
+package com.analyzer.extraction;
+
+import com.analyzer.admission.AdmissionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The enabled {@link TextExtractor}s, in the order listed in
+ * analyzer.extraction.formats, and the rules for choosing one per upload.
+ */
+@Service
+public class TextExtractorRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TextExtractorRegistry.class);
+
+    // Enough to see the first entry names of a ZIP container and a mail header block
+    static final int SNIFF_LENGTH = 8192;
+
+    private final List<TextExtractor> extractors = new ArrayList<>();
+    private final Set<String> extensions = new LinkedHashSet<>();
+    private final int maxChars;
+
+    public TextExtractorRegistry(List<TextExtractor> available,
+            @Value("${analyzer.extraction.formats:pdf,docx,txt,html,md,rtf,xlsx,pptx,eml}") List<String> formats,
+            @Value("${analyzer.extraction.max-chars:20000000}") int maxChars) {
+        this.maxChars = maxChars;
+        Map<String, TextExtractor> byFormat = available.stream()
+                .collect(Collectors.toMap(TextExtractor::getFormat, Function.identity()));
+        for (String format : formats) {
+            TextExtractor extractor = byFormat.get(format.trim().toLowerCase(Locale.ROOT));
+            if (extractor == null) {
+                logger.warn("No text extractor for configured format '{}', ignoring it", format);
+                continue;
+            }
+            extractors.add(extractor);
+            extensions.addAll(extractor.getExtensions());
+        }
+        logger.info("Enabled text extractors: {}", extractors.stream().map(TextExtractor::getFormat).toList());
+    }
+
+    /**
+     * Whether any enabled extractor claims the file's extension; a cheap check
+     * before the upload is read
+     */
+    public boolean isSupported(String filename) {
+        return extensions.contains(extensionOf(filename));
+    }
+
+    public Set<String> getSupportedExtensions() {
+        return extensions;
+    }
+
+    /**
+     * Choose the extractor for an upload. A format whose signature the
+     * content carries wins, preferring the one claiming the file extension;
+     * signature-less content goes to the extractor claiming the extension if
+     * it is compatible. A PDF named .txt is therefore read as PDF, and a ZIP
+     * named .xlsx as a workbook.
+     */
+    public TextExtractor select(String filename, DocumentSource source) throws IOException {
+        byte[] head = source.head(SNIFF_LENGTH);
+        String extension = extensionOf(filename);
+
+        TextExtractor signatureMatch = null;
+        TextExtractor extensionMatch = null;
+        for (TextExtractor extractor : extractors) {
+            TextExtractor.Match match = extractor.sniff(head);
+            boolean claimsExtension = extractor.getExtensions().contains(extension);
+            if (match == TextExtractor.Match.CERTAIN) {
+                if (claimsExtension) {
+                    return extractor;
+                }
+                if (signatureMatch == null) {
+                    signatureMatch = extractor;
+                }
+            } else if (match == TextExtractor.Match.POSSIBLE && claimsExtension && extensionMatch == null) {
+                extensionMatch = extractor;
+            }
+        }
+        if (signatureMatch != null) {
+            logger.debug("Content of {} identified as {}", filename, signatureMatch.getFormat());
+            return signatureMatch;
+        }
+        if (extensionMatch != null) {
+            return extensionMatch;
+        }
+        throw new AdmissionException(AdmissionException.Reason.UNSUPPORTED_CONTENT,
+                "File content does not match its ." + extension + " extension or any supported format");
+    }
+
+    /**
+     * As {@link #select(String, DocumentSource)}, reading only the leading
+     * bytes of the stream
+     */
+    public TextExtractor select(String filename, InputStream content) throws IOException {
+        return select(filename, DocumentSource.of(content.readNBytes(SNIFF_LENGTH)));
+    }
+
+    /**
+     * Run the extractor and collect its chunks into the document text. Small
+     * compressed uploads can expand enormously (a zip bomb posing as a
+     * workbook), so extraction stops once the text passes the configured cap.
+     */
+    public String extractText(TextExtractor extractor, DocumentSource source) throws IOException {
+        StringBuilder text = new StringBuilder();
+        extractor.extract(source, chunk -> {
+            if (text.length() + chunk.length() > maxChars) {
+                throw new AdmissionException(AdmissionException.Reason.TOO_LARGE,
+                        "Extracted text exceeds the limit of " + maxChars + " characters");
+            }
+            text.append(chunk);
+        });
+        return text.toString();
+    }
+
+    static String extensionOf(String filename) {
+        if (filename == null || !filename.contains(".")) {
+            return "";
+        }
+        return filename.substring(filename.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+    }
+}
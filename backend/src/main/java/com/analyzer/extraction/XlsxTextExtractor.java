@@ -0,0 +1,118 @@
+package com.analyzer.extraction;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.stereotype.Component;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Excel workbooks through POI's event model: each sheet is SAX-parsed and
+ * rows are emitted as they are read, so no cell objects are kept in memory.
+ * Only the shared strings table is held for the duration of the extraction.
+ */
+@Component
+public class XlsxTextExtractor implements TextExtractor {
+
+    @Override
+    public String getFormat() {
+        return "xlsx";
+    }
+
+    @Override
+    public Set<String> getExtensions() {
+        return Set.of("xlsx");
+    }
+
+    @Override
+    public Match sniff(byte[] head) {
+        if (!ContentSniffing.isZip(head)) {
+            return Match.NONE;
+        }
+        return ContentSniffing.hasZipEntry(head, "xl/") ? Match.CERTAIN : Match.POSSIBLE;
+    }
+
+    @Override
+    public void extract(DocumentSource source, Consumer<CharSequence> sink) throws IOException {
+        OPCPackage pkg = OfficePackages.open(source);
+        try {
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            XSSFReader reader = new XSSFReader(pkg);
+            StylesTable styles = reader.getStylesTable();
+            DataFormatter formatter = new DataFormatter();
+
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    sink.accept(sheets.getSheetName() + "\n");
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new XSSFSheetXMLHandler(
+                            styles, null, strings, new RowEmitter(sink), formatter, false));
+                    parser.parse(new InputSource(sheet));
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Unreadable workbook: " + e.getMessage(), e);
+        } finally {
+            OfficePackages.close(pkg);
+        }
+    }
+
+    /**
+     * Emits each row as one chunk of tab-separated cell values
+     */
+    private static class RowEmitter implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final Consumer<CharSequence> sink;
+        private final StringBuilder row = new StringBuilder();
+
+        RowEmitter(Consumer<CharSequence> sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            // Large sheets are the slow case, so honour extraction timeouts between rows
+            if (Thread.currentThread().isInterrupted()) {
+                throw new UncheckedIOException(new InterruptedIOException("Extraction cancelled"));
+            }
+            row.setLength(0);
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (row.length() > 0) {
+                row.append('\n');
+                sink.accept(row.toString());
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            if (formattedValue == null || formattedValue.isEmpty()) {
+                return;
+            }
+            if (row.length() > 0) {
+                row.append('\t');
+            }
+            row.append(formattedValue);
+        }
+    }
+}
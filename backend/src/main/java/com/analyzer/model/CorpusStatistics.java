@@ -0,0 +1,129 @@
+package com.analyzer.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot of the corpus-wide aggregates served by /api/documents/stats
+ */
+public class CorpusStatistics {
+    private long totalDocuments;
+    private long totalBytes;
+
+    // Sentiment label counts per time bucket, keyed by bucket start
+    private Map<String, Map<String, Long>> sentimentByPeriod;
+    private Map<String, Long> sentimentTotals;
+    private List<TermCount> topEntities;
+    private List<TermCount> topKeyPhrases;
+    private Map<String, Long> fileTypes;
+    private Map<String, Long> fileSizes;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime generatedAt;
+
+    public CorpusStatistics() {
+        this.generatedAt = LocalDateTime.now();
+    }
+
+    public long getTotalDocuments() {
+        return totalDocuments;
+    }
+
+    public void setTotalDocuments(long totalDocuments) {
+        this.totalDocuments = totalDocuments;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public void setTotalBytes(long totalBytes) {
+        this.totalBytes = totalBytes;
+    }
+
+    public Map<String, Map<String, Long>> getSentimentByPeriod() {
+        return sentimentByPeriod;
+    }
+
+    public void setSentimentByPeriod(Map<String, Map<String, Long>> sentimentByPeriod) {
+        this.sentimentByPeriod = sentimentByPeriod;
+    }
+
+    public Map<String, Long> getSentimentTotals() {
+        return sentimentTotals;
+    }
+
+    public void setSentimentTotals(Map<String, Long> sentimentTotals) {
+        this.sentimentTotals = sentimentTotals;
+    }
+
+    public List<TermCount> getTopEntities() {
+        return topEntities;
+    }
+
+    public void setTopEntities(List<TermCount> topEntities) {
+        this.topEntities = topEntities;
+    }
+
+    public List<TermCount> getTopKeyPhrases() {
+        return topKeyPhrases;
+    }
+
+    public void setTopKeyPhrases(List<TermCount> topKeyPhrases) {
+        this.topKeyPhrases = topKeyPhrases;
+    }
+
+    public Map<String, Long> getFileTypes() {
+        return fileTypes;
+    }
+
+    public void setFileTypes(Map<String, Long> fileTypes) {
+        this.fileTypes = fileTypes;
+    }
+
+    public Map<String, Long> getFileSizes() {
+        return fileSizes;
+    }
+
+    public void setFileSizes(Map<String, Long> fileSizes) {
+        this.fileSizes = fileSizes;
+    }
+
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+
+    public void setGeneratedAt(LocalDateTime generatedAt) {
+        this.generatedAt = generatedAt;
+    }
+
+    /**
+     * Approximate number of documents mentioning a term; the true count lies
+     * in [count - error, count]
+     */
+    public static class TermCount {
+        private final String term;
+        private final long count;
+        private final long error;
+
+        public TermCount(String term, long count, long error) {
+            this.term = term;
+            this.count = count;
+            this.error = error;
+        }
+
+        public String getTerm() {
+            return term;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+    }
+}
@@ -1,9 +1,9 @@
 package com.analyzer.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
 
 public class DocumentAnalysis {
     private String id;
@@ -20,7 +20,13 @@ public class DocumentAnalysis {
     private String sentiment;
     private double sentimentScore;
     private List<String> keyPhrases;
-    private List<Map<String, Object>> entities;
+    private List<DocumentEntity> entities;
+
+    // Set for documents uploaded as a revision of another (parentId)
+    private RevisionDiff revision;
+    // Per-chunk results that later revisions reuse; stored, but not part of the API response
+    @JsonIgnore
+    private List<DocumentChunk> chunks;
 
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     private LocalDateTime analyzedAt;
@@ -144,14 +150,38 @@ public class DocumentAnalysis {
         this.keyPhrases = keyPhrases;
     }
 
-    public List<Map<String, Object>> getEntities() {
+    public List<DocumentEntity> getEntities() {
         return entities;
     }
 
-    public void setEntities(List<Map<String, Object>> entities) {
+    public void setEntities(List<DocumentEntity> entities) {
         this.entities = entities;
     }
 
+    public RevisionDiff getRevision() {
+        return revision;
+    }
+
+    public void setRevision(RevisionDiff revision) {
+        this.revision = revision;
+    }
+
+    public List<DocumentChunk> getChunks() {
+        return chunks;
+    }
+
+    public void setChunks(List<DocumentChunk> chunks) {
+        this.chunks = chunks;
+    }
+
+    /**
+     * Restore text whose metrics are already known, skipping the word split
+     * in calculateMetrics. Used when decoding stored records.
+     */
+    void restoreExtractedText(String extractedText) {
+        this.extractedText = extractedText;
+    }
+
     private void calculateMetrics() {
         if (extractedText != null && !extractedText.trim().isEmpty()) {
             this.characterCount = extractedText.length();
@@ -161,7 +191,8 @@ public class DocumentAnalysis {
             int minutes = Math.max(1, wordCount / 200);
             this.readingTime = minutes + " minute" + (minutes > 1 ? "s" : "");
 
-            // Create simple summary (first 200 characters)
+            // Fallback summary (first 200 characters); DocumentAnalysisService
+            // replaces it with the extractive summary when one is available
             this.summary = extractedText.length() > 200
                     ? extractedText.substring(0, 200) + "..."
                     : extractedText;
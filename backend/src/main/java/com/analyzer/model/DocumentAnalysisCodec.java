@@ -0,0 +1,419 @@
+package com.analyzer.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact, schema-based binary encoding of {@link DocumentAnalysis} used for
+ * stored records.
+ *
+ * Layout (version 2), integers as unsigned varints:
+ * magic "DA", version
+ * id, filename, fileType*, fileSize, wordCount, characterCount, readingTime
+ * summary, sentiment*, sentimentScore (double), analyzedAt (epoch second, nano)
+ * keyPhrases: count, strings
+ * entities: count, type table (count, types*), then
+ *           (text, type index, confidence float) per entity
+ * extractedText: raw length, deflated length, deflated UTF-8
+ * chunks: count, then per chunk hash (long), offset, length, sentiment*,
+ *         positive, negative, neutral, mixed (floats), keyPhrases, entities
+ * revision: parentId (null if none), then chunks, reusedChunks,
+ *           analyzedChunks, addedCharacters, removedCharacters and changes:
+ *           count, (ADDED 0 | REMOVED 1, offset, length, text) per change
+ *
+ * Version 1 records end after extractedText and still decode.
+ *
+ * Fields marked * are dictionary-encoded against a fixed table of known
+ * values: index + 1, or 0 followed by the literal. Strings are length + 1
+ * prefixed UTF-8 so that 0 means null.
+ */
+public final class DocumentAnalysisCodec {
+
+    private static final byte[] MAGIC = { 'D', 'A' };
+    private static final int VERSION = 2;
+
+    // Dictionary indices are stored, so new values are only ever appended
+    private static final List<String> FILE_TYPES = List.of("pdf", "docx", "txt", "html", "md", "rtf", "xlsx",
+            "pptx", "eml");
+    private static final List<String> SENTIMENTS = List.of("POSITIVE", "NEGATIVE", "NEUTRAL", "MIXED");
+    private static final List<String> ENTITY_TYPES = List.of("PERSON", "LOCATION", "ORGANIZATION",
+            "COMMERCIAL_ITEM", "EVENT", "DATE", "QUANTITY", "TITLE", "OTHER", "EMAIL", "PHONE", "URL");
+
+    // Text shorter than this is stored raw, flagged by a deflated length of 0
+    private static final int MIN_COMPRESSIBLE_LENGTH = 256;
+
+    private DocumentAnalysisCodec() {
+    }
+
+    public static byte[] encode(DocumentAnalysis analysis) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+
+            writeString(out, analysis.getId());
+            writeString(out, analysis.getFilename());
+            writeDictionary(out, analysis.getFileType(), FILE_TYPES);
+            writeVarLong(out, analysis.getFileSize());
+            writeVarLong(out, analysis.getWordCount());
+            writeVarLong(out, analysis.getCharacterCount());
+            writeString(out, analysis.getReadingTime());
+            writeString(out, analysis.getSummary());
+            writeDictionary(out, analysis.getSentiment(), SENTIMENTS);
+            out.writeDouble(analysis.getSentimentScore());
+
+            LocalDateTime analyzedAt = analysis.getAnalyzedAt();
+            writeVarLong(out, analyzedAt != null ? analyzedAt.toEpochSecond(ZoneOffset.UTC) + 1 : 0);
+            writeVarLong(out, analyzedAt != null ? analyzedAt.getNano() : 0);
+
+            List<String> keyPhrases = analysis.getKeyPhrases();
+            writeVarLong(out, keyPhrases != null ? keyPhrases.size() + 1 : 0);
+            if (keyPhrases != null) {
+                for (String phrase : keyPhrases) {
+                    writeString(out, phrase);
+                }
+            }
+
+            writeEntities(out, analysis.getEntities());
+            writeCompressed(out, analysis.getExtractedText());
+            writeChunks(out, analysis.getChunks());
+            writeRevision(out, analysis.getRevision());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot encode analysis " + analysis.getId(), e);
+        }
+        return buffer.toByteArray();
+    }
+
+    public static DocumentAnalysis decode(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readByte() != MAGIC[0] || in.readByte() != MAGIC[1]) {
+                throw new IllegalArgumentException("Not an encoded DocumentAnalysis");
+            }
+            int version = in.readUnsignedByte();
+            if (version < 1 || version > VERSION) {
+                throw new IllegalArgumentException("Unsupported DocumentAnalysis encoding version " + version);
+            }
+
+            DocumentAnalysis analysis = new DocumentAnalysis();
+            analysis.setId(readString(in));
+            analysis.setFilename(readString(in));
+            analysis.setFileType(readDictionary(in, FILE_TYPES));
+            analysis.setFileSize(readVarLong(in));
+            analysis.setWordCount((int) readVarLong(in));
+            analysis.setCharacterCount((int) readVarLong(in));
+            analysis.setReadingTime(readString(in));
+            analysis.setSummary(readString(in));
+            analysis.setSentiment(readDictionary(in, SENTIMENTS));
+            analysis.setSentimentScore(in.readDouble());
+
+            long epochSecond = readVarLong(in);
+            int nano = (int) readVarLong(in);
+            analysis.setAnalyzedAt(epochSecond > 0
+                    ? LocalDateTime.ofEpochSecond(epochSecond - 1, nano, ZoneOffset.UTC)
+                    : null);
+
+            int phraseCount = (int) readVarLong(in) - 1;
+            if (phraseCount >= 0) {
+                List<String> keyPhrases = new ArrayList<>(phraseCount);
+                for (int i = 0; i < phraseCount; i++) {
+                    keyPhrases.add(readString(in));
+                }
+                analysis.setKeyPhrases(keyPhrases);
+            }
+
+            analysis.setEntities(readEntities(in));
+            analysis.restoreExtractedText(readCompressed(in));
+            if (version >= 2) {
+                analysis.setChunks(readChunks(in));
+                analysis.setRevision(readRevision(in));
+            }
+            return analysis;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot decode analysis", e);
+        }
+    }
+
+    private static void writeEntities(DataOutputStream out, List<DocumentEntity> entities) throws IOException {
+        if (entities == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        writeVarLong(out, entities.size() + 1);
+
+        // Per-record dictionary of entity types; documents rarely use more than a handful
+        Map<String, Integer> typeIndex = new HashMap<>();
+        List<String> types = new ArrayList<>();
+        for (DocumentEntity entity : entities) {
+            typeIndex.computeIfAbsent(entity.getType(), type -> {
+                types.add(type);
+                return types.size() - 1;
+            });
+        }
+        writeVarLong(out, types.size());
+        for (String type : types) {
+            writeDictionary(out, type, ENTITY_TYPES);
+        }
+
+        for (DocumentEntity entity : entities) {
+            writeString(out, entity.getText());
+            writeVarLong(out, typeIndex.get(entity.getType()));
+            out.writeFloat(entity.getConfidence());
+        }
+    }
+
+    private static List<DocumentEntity> readEntities(DataInputStream in) throws IOException {
+        int entityCount = (int) readVarLong(in) - 1;
+        if (entityCount < 0) {
+            return null;
+        }
+
+        String[] types = new String[(int) readVarLong(in)];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = readDictionary(in, ENTITY_TYPES);
+        }
+
+        List<DocumentEntity> entities = new ArrayList<>(entityCount);
+        for (int i = 0; i < entityCount; i++) {
+            String text = readString(in);
+            String type = types[(int) readVarLong(in)];
+            entities.add(new DocumentEntity(text, type, in.readFloat()));
+        }
+        return entities;
+    }
+
+    private static void writeChunks(DataOutputStream out, List<DocumentChunk> chunks) throws IOException {
+        writeVarLong(out, chunks != null ? chunks.size() + 1 : 0);
+        if (chunks == null) {
+            return;
+        }
+        for (DocumentChunk chunk : chunks) {
+            out.writeLong(chunk.getHash());
+            writeVarLong(out, chunk.getOffset());
+            writeVarLong(out, chunk.getLength());
+            writeDictionary(out, chunk.getSentiment(), SENTIMENTS);
+            out.writeFloat(chunk.getPositiveScore());
+            out.writeFloat(chunk.getNegativeScore());
+            out.writeFloat(chunk.getNeutralScore());
+            out.writeFloat(chunk.getMixedScore());
+            List<String> keyPhrases = chunk.getKeyPhrases();
+            writeVarLong(out, keyPhrases != null ? keyPhrases.size() + 1 : 0);
+            if (keyPhrases != null) {
+                for (String phrase : keyPhrases) {
+                    writeString(out, phrase);
+                }
+            }
+            writeEntities(out, chunk.getEntities());
+        }
+    }
+
+    private static List<DocumentChunk> readChunks(DataInputStream in) throws IOException {
+        int chunkCount = (int) readVarLong(in) - 1;
+        if (chunkCount < 0) {
+            return null;
+        }
+        List<DocumentChunk> chunks = new ArrayList<>(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            DocumentChunk chunk = new DocumentChunk(in.readLong(), (int) readVarLong(in), (int) readVarLong(in));
+            chunk.setSentiment(readDictionary(in, SENTIMENTS));
+            chunk.setPositiveScore(in.readFloat());
+            chunk.setNegativeScore(in.readFloat());
+            chunk.setNeutralScore(in.readFloat());
+            chunk.setMixedScore(in.readFloat());
+            int phraseCount = (int) readVarLong(in) - 1;
+            if (phraseCount >= 0) {
+                List<String> keyPhrases = new ArrayList<>(phraseCount);
+                for (int j = 0; j < phraseCount; j++) {
+                    keyPhrases.add(readString(in));
+                }
+                chunk.setKeyPhrases(keyPhrases);
+            }
+            chunk.setEntities(readEntities(in));
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    private static void writeRevision(DataOutputStream out, RevisionDiff revision) throws IOException {
+        if (revision == null) {
+            writeString(out, null);
+            return;
+        }
+        writeString(out, revision.getParentId());
+        writeVarLong(out, revision.getChunks());
+        writeVarLong(out, revision.getReusedChunks());
+        writeVarLong(out, revision.getAnalyzedChunks());
+        writeVarLong(out, revision.getAddedCharacters());
+        writeVarLong(out, revision.getRemovedCharacters());
+        List<RevisionDiff.Change> changes = revision.getChanges() != null ? revision.getChanges() : List.of();
+        writeVarLong(out, changes.size());
+        for (RevisionDiff.Change change : changes) {
+            writeVarLong(out, RevisionDiff.Change.REMOVED.equals(change.getType()) ? 1 : 0);
+            writeVarLong(out, change.getOffset());
+            writeVarLong(out, change.getLength());
+            writeString(out, change.getText());
+        }
+    }
+
+    private static RevisionDiff readRevision(DataInputStream in) throws IOException {
+        String parentId = readString(in);
+        if (parentId == null) {
+            return null;
+        }
+        RevisionDiff revision = new RevisionDiff();
+        revision.setParentId(parentId);
+        revision.setChunks((int) readVarLong(in));
+        revision.setReusedChunks((int) readVarLong(in));
+        revision.setAnalyzedChunks((int) readVarLong(in));
+        revision.setAddedCharacters(readVarLong(in));
+        revision.setRemovedCharacters(readVarLong(in));
+        int changeCount = (int) readVarLong(in);
+        List<RevisionDiff.Change> changes = new ArrayList<>(changeCount);
+        for (int i = 0; i < changeCount; i++) {
+            String type = readVarLong(in) == 1 ? RevisionDiff.Change.REMOVED : RevisionDiff.Change.ADDED;
+            changes.add(new RevisionDiff.Change(type, (int) readVarLong(in), (int) readVarLong(in),
+                    readString(in)));
+        }
+        revision.setChanges(changes);
+        return revision;
+    }
+
+    private static void writeCompressed(DataOutputStream out, String text) throws IOException {
+        if (text == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, raw.length + 1);
+
+        if (raw.length < MIN_COMPRESSIBLE_LENGTH) {
+            writeVarLong(out, 0);
+            out.write(raw);
+            return;
+        }
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 3 + 64);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                compressed.write(chunk, 0, n);
+            }
+            writeVarLong(out, compressed.size());
+            compressed.writeTo(out);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static String readCompressed(DataInputStream in) throws IOException {
+        int rawLength = (int) readVarLong(in) - 1;
+        if (rawLength < 0) {
+            return null;
+        }
+        int compressedLength = (int) readVarLong(in);
+        byte[] raw = new byte[rawLength];
+        if (compressedLength == 0) {
+            in.readFully(raw);
+            return new String(raw, StandardCharsets.UTF_8);
+        }
+
+        byte[] compressed = new byte[compressedLength];
+        in.readFully(compressed);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int offset = 0;
+            while (offset < rawLength && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, offset, rawLength - offset);
+                // A truncated stream asks for input that will never come
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Corrupt compressed text");
+                }
+                offset += inflated;
+            }
+            if (offset != rawLength) {
+                throw new IOException("Corrupt compressed text: " + offset + " of " + rawLength + " bytes");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt compressed text", e);
+        } finally {
+            inflater.end();
+        }
+        return new String(raw, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDictionary(DataOutputStream out, String value, List<String> dictionary)
+            throws IOException {
+        int index = value != null ? dictionary.indexOf(value) : -1;
+        writeVarLong(out, index + 1);
+        if (index < 0) {
+            writeString(out, value);
+        }
+    }
+
+    private static String readDictionary(DataInputStream in, List<String> dictionary) throws IOException {
+        int index = (int) readVarLong(in) - 1;
+        return index >= 0 ? dictionary.get(index) : readString(in);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = (int) readVarLong(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+            if (shift > 63) {
+                throw new IOException("Malformed varint");
+            }
+        }
+    }
+}
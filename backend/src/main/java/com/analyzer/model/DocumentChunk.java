@@ -0,0 +1,121 @@
+package com.analyzer.model;
+
+import java.util.List;
+
+/**
+ * Content-defined chunk of a document's extracted text with the analysis of
+ * that chunk alone, kept so that a later revision can reuse it. The hash
+ * identifies the chunk's content; offset and length locate it in the text.
+ */
+public class DocumentChunk {
+    private long hash;
+    private int offset;
+    private int length;
+
+    private String sentiment;
+    private float positiveScore;
+    private float negativeScore;
+    private float neutralScore;
+    private float mixedScore;
+    private List<String> keyPhrases;
+    private List<DocumentEntity> entities;
+
+    public DocumentChunk() {
+    }
+
+    public DocumentChunk(long hash, int offset, int length) {
+        this.hash = hash;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    public void setHash(long hash) {
+        this.hash = hash;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public void setOffset(int offset) {
+        this.offset = offset;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public void setLength(int length) {
+        this.length = length;
+    }
+
+    public String getSentiment() {
+        return sentiment;
+    }
+
+    public void setSentiment(String sentiment) {
+        this.sentiment = sentiment;
+    }
+
+    public float getPositiveScore() {
+        return positiveScore;
+    }
+
+    public void setPositiveScore(float positiveScore) {
+        this.positiveScore = positiveScore;
+    }
+
+    public float getNegativeScore() {
+        return negativeScore;
+    }
+
+    public void setNegativeScore(float negativeScore) {
+        this.negativeScore = negativeScore;
+    }
+
+    public float getNeutralScore() {
+        return neutralScore;
+    }
+
+    public void setNeutralScore(float neutralScore) {
+        this.neutralScore = neutralScore;
+    }
+
+    public float getMixedScore() {
+        return mixedScore;
+    }
+
+    public void setMixedScore(float mixedScore) {
+        this.mixedScore = mixedScore;
+    }
+
+    public List<String> getKeyPhrases() {
+        return keyPhrases;
+    }
+
+    public void setKeyPhrases(List<String> keyPhrases) {
+        this.keyPhrases = keyPhrases;
+    }
+
+    public List<DocumentEntity> getEntities() {
+        return entities;
+    }
+
+    public void setEntities(List<DocumentEntity> entities) {
+        this.entities = entities;
+    }
+
+    /**
+     * Whether this chunk carries analysis results; chunks cut from the text
+     * of a document uploaded without a parent, and chunks whose analysis
+     * fell back to the mock while AWS Comprehend was failing, only have
+     * position and hash
+     */
+    public boolean isAnalyzed() {
+        return sentiment != null;
+    }
+}
@@ -0,0 +1,129 @@
+package com.analyzer.model;
+
+import java.util.List;
+
+/**
+ * Chunk-level difference between a revision and its parent, returned with
+ * analyses uploaded with a parentId. Added spans are offsets into this
+ * document's extracted text, removed spans into the parent's.
+ */
+public class RevisionDiff {
+    private String parentId;
+    private int chunks;
+    private int reusedChunks;
+    private int analyzedChunks;
+    private long addedCharacters;
+    private long removedCharacters;
+    private List<Change> changes;
+
+    public String getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(String parentId) {
+        this.parentId = parentId;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public void setChunks(int chunks) {
+        this.chunks = chunks;
+    }
+
+    public int getReusedChunks() {
+        return reusedChunks;
+    }
+
+    public void setReusedChunks(int reusedChunks) {
+        this.reusedChunks = reusedChunks;
+    }
+
+    public int getAnalyzedChunks() {
+        return analyzedChunks;
+    }
+
+    public void setAnalyzedChunks(int analyzedChunks) {
+        this.analyzedChunks = analyzedChunks;
+    }
+
+    public long getAddedCharacters() {
+        return addedCharacters;
+    }
+
+    public void setAddedCharacters(long addedCharacters) {
+        this.addedCharacters = addedCharacters;
+    }
+
+    public long getRemovedCharacters() {
+        return removedCharacters;
+    }
+
+    public void setRemovedCharacters(long removedCharacters) {
+        this.removedCharacters = removedCharacters;
+    }
+
+    public List<Change> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<Change> changes) {
+        this.changes = changes;
+    }
+
+    /**
+     * A chunk present in only one of the two versions
+     */
+    public static class Change {
+        public static final String ADDED = "ADDED";
+        public static final String REMOVED = "REMOVED";
+
+        private String type;
+        private int offset;
+        private int length;
+        private String text;
+
+        public Change() {
+        }
+
+        public Change(String type, int offset, int length, String text) {
+            this.type = type;
+            this.offset = offset;
+            this.length = length;
+            this.text = text;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public int getOffset() {
+            return offset;
+        }
+
+        public void setOffset(int offset) {
+            this.offset = offset;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        public void setLength(int length) {
+            this.length = length;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public void setText(String text) {
+            this.text = text;
+        }
+    }
+}
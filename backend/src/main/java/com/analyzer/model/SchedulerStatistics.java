@@ -0,0 +1,151 @@
+package com.analyzer.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Snapshot of the analysis scheduler served by /api/documents/scheduler
+ */
+public class SchedulerStatistics {
+    private int maxConcurrent;
+    private int tenantMaxConcurrent;
+    private int running;
+    private Map<String, QueueStatistics> lanes;
+    private Map<String, QueueStatistics> tenants;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime generatedAt;
+
+    public SchedulerStatistics() {
+        this.generatedAt = LocalDateTime.now();
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public int getTenantMaxConcurrent() {
+        return tenantMaxConcurrent;
+    }
+
+    public void setTenantMaxConcurrent(int tenantMaxConcurrent) {
+        this.tenantMaxConcurrent = tenantMaxConcurrent;
+    }
+
+    public int getRunning() {
+        return running;
+    }
+
+    public void setRunning(int running) {
+        this.running = running;
+    }
+
+    public Map<String, QueueStatistics> getLanes() {
+        return lanes;
+    }
+
+    public void setLanes(Map<String, QueueStatistics> lanes) {
+        this.lanes = lanes;
+    }
+
+    public Map<String, QueueStatistics> getTenants() {
+        return tenants;
+    }
+
+    public void setTenants(Map<String, QueueStatistics> tenants) {
+        this.tenants = tenants;
+    }
+
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+
+    public void setGeneratedAt(LocalDateTime generatedAt) {
+        this.generatedAt = generatedAt;
+    }
+
+    /**
+     * Queue depth and wait times of one lane or tenant. Wait is the time
+     * from arrival until the request was allowed to start.
+     */
+    public static class QueueStatistics {
+        private double weight;
+        private int queued;
+        private int running;
+        private long dispatched;
+        private long rejected;
+        private long averageWaitMs;
+        private long maxWaitMs;
+        // Age of the longest-waiting request still queued
+        private long oldestQueuedMs;
+
+        public double getWeight() {
+            return weight;
+        }
+
+        public void setWeight(double weight) {
+            this.weight = weight;
+        }
+
+        public int getQueued() {
+            return queued;
+        }
+
+        public void setQueued(int queued) {
+            this.queued = queued;
+        }
+
+        public int getRunning() {
+            return running;
+        }
+
+        public void setRunning(int running) {
+            this.running = running;
+        }
+
+        public long getDispatched() {
+            return dispatched;
+        }
+
+        public void setDispatched(long dispatched) {
+            this.dispatched = dispatched;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public void setRejected(long rejected) {
+            this.rejected = rejected;
+        }
+
+        public long getAverageWaitMs() {
+            return averageWaitMs;
+        }
+
+        public void setAverageWaitMs(long averageWaitMs) {
+            this.averageWaitMs = averageWaitMs;
+        }
+
+        public long getMaxWaitMs() {
+            return maxWaitMs;
+        }
+
+        public void setMaxWaitMs(long maxWaitMs) {
+            this.maxWaitMs = maxWaitMs;
+        }
+
+        public long getOldestQueuedMs() {
+            return oldestQueuedMs;
+        }
+
+        public void setOldestQueuedMs(long oldestQueuedMs) {
+            this.oldestQueuedMs = oldestQueuedMs;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.analyzer.model;
+
+/**
+ * One result of /api/documents/{id}/similar; score is the cosine similarity
+ * of the two documents' TF-IDF vectors
+ */
+public class SimilarDocument {
+    private String id;
+    private String filename;
+    private String fileType;
+    private double score;
+
+    public SimilarDocument() {
+    }
+
+    public SimilarDocument(String id, String filename, String fileType, double score) {
+        this.id = id;
+        this.filename = filename;
+        this.fileType = fileType;
+        this.score = score;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public void setFilename(String filename) {
+        this.filename = filename;
+    }
+
+    public String getFileType() {
+        return fileType;
+    }
+
+    public void setFileType(String fileType) {
+        this.fileType = fileType;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+}
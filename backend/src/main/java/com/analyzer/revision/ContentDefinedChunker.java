@@ -0,0 +1,93 @@
+package com.analyzer.revision;
+
+import com.analyzer.model.DocumentChunk;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Splits extracted text into content-defined chunks, so that an edit only
+ * changes the chunks around it and every other chunk keeps its hash.
+ *
+ * A gear hash rolls over the text; a boundary is due where its top bits are
+ * all zero, which depends only on the preceding 64 characters, not on where
+ * the chunk started. The cut is then made after the next whitespace so that
+ * words stay whole. Chunks are kept between a quarter and twice the
+ * configured average.
+ */
+@Component
+public class ContentDefinedChunker {
+
+    // Fixed seed: boundaries must be the same on every node and across restarts
+    private static final long[] GEAR = new long[256];
+    static {
+        SplittableRandom random = new SplittableRandom(0x5eed_c0de_d0c5L);
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextLong();
+        }
+    }
+
+    // A word longer than this is cut without waiting for whitespace
+    private static final int MAX_WORD_CHARS = 256;
+
+    private final int minChars;
+    private final int maxChars;
+    private final long boundaryMask;
+
+    public ContentDefinedChunker(@Value("${analyzer.revision.average-chunk-chars:2048}") int averageChunkChars) {
+        int average = Math.max(64, averageChunkChars);
+        this.minChars = average / 4;
+        this.maxChars = average * 2;
+        // One boundary per (average - min) characters past the minimum
+        int bits = Integer.numberOfTrailingZeros(Integer.highestOneBit(average - minChars));
+        this.boundaryMask = bits == 0 ? 0 : -1L << (64 - bits);
+    }
+
+    public List<DocumentChunk> split(String text) {
+        List<DocumentChunk> chunks = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return chunks;
+        }
+        MessageDigest digest = sha256();
+        long hash = 0;
+        int start = 0;
+        boolean boundaryDue = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            hash = (hash << 1) + GEAR[(c ^ (c >>> 8)) & 0xff];
+            int length = i + 1 - start;
+            if (!boundaryDue && length >= minChars && ((hash & boundaryMask) == 0 || length >= maxChars)) {
+                boundaryDue = true;
+            }
+            if (boundaryDue && Character.isWhitespace(c) || length >= maxChars + MAX_WORD_CHARS) {
+                chunks.add(chunk(text, start, i + 1, digest));
+                start = i + 1;
+                boundaryDue = false;
+            }
+        }
+        if (start < text.length()) {
+            chunks.add(chunk(text, start, text.length(), digest));
+        }
+        return chunks;
+    }
+
+    private static DocumentChunk chunk(String text, int start, int end, MessageDigest digest) {
+        byte[] sha = digest.digest(text.substring(start, end).getBytes(StandardCharsets.UTF_8));
+        return new DocumentChunk(ByteBuffer.wrap(sha).getLong(), start, end - start);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package com.analyzer.revision;
+
+import com.analyzer.model.DocumentAnalysis;
+import com.analyzer.model.DocumentChunk;
+import com.analyzer.model.DocumentEntity;
+import com.analyzer.model.RevisionDiff;
+import com.analyzer.service.AiAnalysisService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Analyzes a new version of a stored document by reusing the parent's
+ * per-chunk results.
+ *
+ * The new text is split into content-defined chunks and matched against the
+ * parent's chunks by content hash. Only chunks without a match go through
+ * sentiment, key phrase and entity analysis (mock or AWS Comprehend); the
+ * document-level result is then merged from all chunks:
+ *
+ * - sentiment scores are averaged, weighted by chunk length, and the
+ *   highest score gives the label
+ * - key phrases are ranked by the number of chunks they occur in
+ * - entities are de-duplicated, keeping the highest confidence
+ *
+ * The summary is recomputed over the whole text; it is local and cheap.
+ * A chunk whose analysis fell back to the mock because AWS Comprehend was
+ * unavailable or failing still counts towards the merged result, but is
+ * stored without results so that the next revision analyzes it again.
+ * A parent uploaded without a parentId has no per-chunk results, so its
+ * first revision analyzes every chunk and later revisions reuse them.
+ */
+@Service
+public class RevisionAnalyzer {
+
+    private static final String POSITIVE = "POSITIVE";
+    private static final String NEGATIVE = "NEGATIVE";
+    private static final String NEUTRAL = "NEUTRAL";
+    private static final String MIXED = "MIXED";
+
+    // Same limits as the mock analyzers apply to a whole document
+    private static final int MAX_KEY_PHRASES = 10;
+    private static final int MAX_ENTITIES = 20;
+
+    private final AiAnalysisService aiAnalysisService;
+    private final ContentDefinedChunker chunker;
+    private final int maxConcurrentChunks;
+    // Runs the servlet API's chunk analyses; its threads never block, so one per CPU is enough
+    private final ExecutorService chunkExecutor;
+
+    public RevisionAnalyzer(AiAnalysisService aiAnalysisService, ContentDefinedChunker chunker,
+            @Value("${analyzer.revision.max-concurrent-chunks:8}") int maxConcurrentChunks) {
+        this.aiAnalysisService = aiAnalysisService;
+        this.chunker = chunker;
+        this.maxConcurrentChunks = Math.max(1, maxConcurrentChunks);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.chunkExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+            Thread thread = new Thread(r, "revision-chunks-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        chunkExecutor.shutdownNow();
+    }
+
+    /**
+     * Blocking variant for the servlet API; the changed chunks go through
+     * the same bounded lanes as {@link #analyzeAsync}
+     */
+    public RevisionAnalysis analyze(String text, DocumentAnalysis parent) {
+        try {
+            return analyzeAsync(text, parent, chunkExecutor).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Asynchronous variant for the reactive API; changed chunks are analyzed
+     * concurrently, at most analyzer.revision.max-concurrent-chunks at a time
+     */
+    public CompletableFuture<RevisionAnalysis> analyzeAsync(String text, DocumentAnalysis parent,
+            Executor cpuExecutor) {
+        return CompletableFuture.supplyAsync(() -> plan(text, parent), cpuExecutor).thenCompose(plan -> {
+            AtomicInteger next = new AtomicInteger();
+            CompletableFuture<?>[] lanes = new CompletableFuture<?>[Math.min(maxConcurrentChunks,
+                    plan.changed.size())];
+            for (int i = 0; i < lanes.length; i++) {
+                lanes[i] = analyzeRemaining(plan, next, cpuExecutor);
+            }
+            return CompletableFuture.allOf(lanes).thenApplyAsync(ignored -> finish(plan), cpuExecutor);
+        });
+    }
+
+    /**
+     * One lane of the async analysis: take the next changed chunk, analyze
+     * it, then continue with the one after, until none are left
+     */
+    private CompletableFuture<Void> analyzeRemaining(Plan plan, AtomicInteger next, Executor cpuExecutor) {
+        int index = next.getAndIncrement();
+        if (index >= plan.changed.size()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        DocumentChunk chunk = plan.changed.get(index);
+        // Async so that results completing immediately do not nest one stack frame per chunk
+        return aiAnalysisService.analyzeChunkAsync(plan.textOf(chunk), cpuExecutor)
+                .thenComposeAsync(result -> {
+                    applyResult(plan, chunk, result);
+                    return analyzeRemaining(plan, next, cpuExecutor);
+                }, cpuExecutor);
+    }
+
+    private Plan plan(String text, DocumentAnalysis parent) {
+        Plan plan = new Plan(text, parent);
+        plan.chunks = chunker.split(text);
+        plan.parentChunks = parent.getChunks() != null ? parent.getChunks()
+                : chunker.split(parent.getExtractedText());
+
+        Map<Long, DocumentChunk> previous = new HashMap<>();
+        for (DocumentChunk chunk : plan.parentChunks) {
+            if (chunk.isAnalyzed()) {
+                previous.putIfAbsent(chunk.getHash(), chunk);
+            }
+        }
+        for (DocumentChunk chunk : plan.chunks) {
+            DocumentChunk match = previous.get(chunk.getHash());
+            if (match != null) {
+                copyResult(match, chunk);
+                plan.reused++;
+            } else {
+                plan.changed.add(chunk);
+            }
+        }
+        return plan;
+    }
+
+    private RevisionAnalysis finish(Plan plan) {
+        AiAnalysisService.ComprehensiveAnalysisResult result = new AiAnalysisService.ComprehensiveAnalysisResult(
+                mergeSentiment(plan.chunks), mergeKeyPhrases(plan.chunks), mergeEntities(plan.chunks),
+                aiAnalysisService.summarize(plan.text));
+        plan.fallbacks.forEach(RevisionAnalyzer::clearResult);
+        return new RevisionAnalysis(result, plan.chunks, diff(plan));
+    }
+
+    private static AiAnalysisService.SentimentAnalysisResult mergeSentiment(List<DocumentChunk> chunks) {
+        double positive = 0;
+        double negative = 0;
+        double neutral = 0;
+        double mixed = 0;
+        double total = 0;
+        for (DocumentChunk chunk : chunks) {
+            positive += (double) chunk.getPositiveScore() * chunk.getLength();
+            negative += (double) chunk.getNegativeScore() * chunk.getLength();
+            neutral += (double) chunk.getNeutralScore() * chunk.getLength();
+            mixed += (double) chunk.getMixedScore() * chunk.getLength();
+            total += chunk.getLength();
+        }
+        if (total == 0) {
+            return new AiAnalysisService.SentimentAnalysisResult(NEUTRAL, 0.0f, 0.0f, 1.0f, 0.0f);
+        }
+
+        String sentiment = NEUTRAL;
+        double best = neutral;
+        if (positive > best) {
+            sentiment = POSITIVE;
+            best = positive;
+        }
+        if (negative > best) {
+            sentiment = NEGATIVE;
+            best = negative;
+        }
+        if (mixed > best) {
+            sentiment = MIXED;
+        }
+        return new AiAnalysisService.SentimentAnalysisResult(sentiment, (float) (positive / total),
+                (float) (negative / total), (float) (neutral / total), (float) (mixed / total));
+    }
+
+    private static List<String> mergeKeyPhrases(List<DocumentChunk> chunks) {
+        // Insertion order breaks ties in favour of the phrase seen first
+        Map<String, Integer> chunkCounts = new LinkedHashMap<>();
+        for (DocumentChunk chunk : chunks) {
+            if (chunk.getKeyPhrases() != null) {
+                for (String phrase : new LinkedHashSet<>(chunk.getKeyPhrases())) {
+                    chunkCounts.merge(phrase, 1, Integer::sum);
+                }
+            }
+        }
+        return chunkCounts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .limit(MAX_KEY_PHRASES)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private static List<AiAnalysisService.EntityResult> mergeEntities(List<DocumentChunk> chunks) {
+        Map<String, DocumentEntity> entities = new LinkedHashMap<>();
+        for (DocumentChunk chunk : chunks) {
+            if (chunk.getEntities() != null) {
+                for (DocumentEntity entity : chunk.getEntities()) {
+                    entities.merge(entity.getType() + '\0' + entity.getText(), entity,
+                            (kept, other) -> other.getConfidence() > kept.getConfidence() ? other : kept);
+                }
+            }
+        }
+        return entities.values().stream()
+                .limit(MAX_ENTITIES)
+                .map(entity -> new AiAnalysisService.EntityResult(entity.getText(), entity.getType(),
+                        entity.getConfidence()))
+                .toList();
+    }
+
+    /**
+     * Walk both chunk lists in order. Chunks found in both versions line the
+     * two up; in between, parent chunks missing from the new version are
+     * removed and new chunks missing from the parent are added. A moved
+     * chunk is not a change.
+     */
+    private static RevisionDiff diff(Plan plan) {
+        Set<Long> parentHashes = new HashSet<>();
+        plan.parentChunks.forEach(chunk -> parentHashes.add(chunk.getHash()));
+        Set<Long> newHashes = new HashSet<>();
+        plan.chunks.forEach(chunk -> newHashes.add(chunk.getHash()));
+
+        String parentText = plan.parent.getExtractedText();
+        List<RevisionDiff.Change> changes = new ArrayList<>();
+        long added = 0;
+        long removed = 0;
+        int i = 0;
+        int j = 0;
+        while (i < plan.parentChunks.size() || j < plan.chunks.size()) {
+            DocumentChunk old = i < plan.parentChunks.size() ? plan.parentChunks.get(i) : null;
+            DocumentChunk current = j < plan.chunks.size() ? plan.chunks.get(j) : null;
+            if (old != null && !newHashes.contains(old.getHash())) {
+                changes.add(new RevisionDiff.Change(RevisionDiff.Change.REMOVED, old.getOffset(), old.getLength(),
+                        parentText.substring(old.getOffset(), old.getOffset() + old.getLength())));
+                removed += old.getLength();
+                i++;
+            } else if (current != null && !parentHashes.contains(current.getHash())) {
+                changes.add(new RevisionDiff.Change(RevisionDiff.Change.ADDED, current.getOffset(),
+                        current.getLength(), plan.textOf(current)));
+                added += current.getLength();
+                j++;
+            } else {
+                i++;
+                j++;
+            }
+        }
+
+        RevisionDiff diff = new RevisionDiff();
+        diff.setParentId(plan.parent.getId());
+        diff.setChunks(plan.chunks.size());
+        diff.setReusedChunks(plan.reused);
+        diff.setAnalyzedChunks(plan.changed.size());
+        diff.setAddedCharacters(added);
+        diff.setRemovedCharacters(removed);
+        diff.setChanges(changes);
+        return diff;
+    }
+
+    private static void applyResult(Plan plan, DocumentChunk chunk,
+            AiAnalysisService.ComprehensiveAnalysisResult result) {
+        if (result.isFallback()) {
+            plan.fallbacks.add(chunk);
+        }
+        AiAnalysisService.SentimentAnalysisResult sentiment = result.getSentiment();
+        chunk.setSentiment(sentiment.getSentiment());
+        chunk.setPositiveScore(sentiment.getPositiveScore());
+        chunk.setNegativeScore(sentiment.getNegativeScore());
+        chunk.setNeutralScore(sentiment.getNeutralScore());
+        chunk.setMixedScore(sentiment.getMixedScore());
+        chunk.setKeyPhrases(result.getKeyPhrases());
+        chunk.setEntities(result.getEntities().stream()
+                .map(entity -> new DocumentEntity(entity.getText(), entity.getType(), entity.getConfidence()))
+                .toList());
+    }
+
+    private static void copyResult(DocumentChunk from, DocumentChunk to) {
+        to.setSentiment(from.getSentiment());
+        to.setPositiveScore(from.getPositiveScore());
+        to.setNegativeScore(from.getNegativeScore());
+        to.setNeutralScore(from.getNeutralScore());
+        to.setMixedScore(from.getMixedScore());
+        to.setKeyPhrases(from.getKeyPhrases());
+        to.setEntities(from.getEntities());
+    }
+
+    private static void clearResult(DocumentChunk chunk) {
+        chunk.setSentiment(null);
+        chunk.setPositiveScore(0.0f);
+        chunk.setNegativeScore(0.0f);
+        chunk.setNeutralScore(0.0f);
+        chunk.setMixedScore(0.0f);
+        chunk.setKeyPhrases(null);
+        chunk.setEntities(null);
+    }
+
+    private static class Plan {
+        private final String text;
+        private final DocumentAnalysis parent;
+        private List<DocumentChunk> chunks;
+        private List<DocumentChunk> parentChunks;
+        private final List<DocumentChunk> changed = new ArrayList<>();
+        // Changed chunks analyzed by the mock in place of AWS Comprehend; added to from several async lanes
+        private final List<DocumentChunk> fallbacks = Collections.synchronizedList(new ArrayList<>());
+        private int reused;
+
+        Plan(String text, DocumentAnalysis parent) {
+            this.text = text;
+            this.parent = parent;
+        }
+
+        String textOf(DocumentChunk chunk) {
+            return text.substring(chunk.getOffset(), chunk.getOffset() + chunk.getLength());
+        }
+    }
+
+    /**
+     * Merged document-level result, the analyzed chunks to store with it and
+     * the diff against the parent
+     */
+    public static class RevisionAnalysis {
+        private final AiAnalysisService.ComprehensiveAnalysisResult result;
+        private final List<DocumentChunk> chunks;
+        private final RevisionDiff diff;
+
+        RevisionAnalysis(AiAnalysisService.ComprehensiveAnalysisResult result, List<DocumentChunk> chunks,
+                RevisionDiff diff) {
+            this.result = result;
+            this.chunks = chunks;
+            this.diff = diff;
+        }
+
+        public AiAnalysisService.ComprehensiveAnalysisResult getResult() {
+            return result;
+        }
+
+        public List<DocumentChunk> getChunks() {
+            return chunks;
+        }
+
+        public RevisionDiff getDiff() {
+            return diff;
+        }
+    }
+}
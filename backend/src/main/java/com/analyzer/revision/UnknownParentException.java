@@ -0,0 +1,19 @@
+package com.analyzer.revision;
+
+/**
+ * Thrown when a revision is uploaded with a parentId that has no stored
+ * analysis (unknown, or still being analyzed).
+ */
+public class UnknownParentException extends RuntimeException {
+
+    private final String parentId;
+
+    public UnknownParentException(String parentId) {
+        super("Parent document " + parentId + " not found");
+        this.parentId = parentId;
+    }
+
+    public String getParentId() {
+        return parentId;
+    }
+}
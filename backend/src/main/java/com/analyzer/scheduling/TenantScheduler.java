@@ -0,0 +1,511 @@
+package com.analyzer.scheduling;
+
+import com.analyzer.admission.AdmissionException;
+import com.analyzer.model.SchedulerStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Decides which tenant's analysis runs next.
+ *
+ * Requests queue per tenant in one of two lanes. Within a lane, tenants are
+ * served by start-time fair queuing: every request is tagged with a virtual
+ * start time that advances by its cost (upload size) divided by the
+ * tenant's weight, and the lowest tag runs first, so a tenant with a
+ * thousand queued files gets its weighted share and no more. Lanes share
+ * the slots by stride scheduling on their weights, which lets interactive
+ * uploads overtake a bulk import while batch work still progresses. At
+ * most max-concurrent analyses run at once. The per-tenant cap
+ * (tenant-max-concurrent) is work-conserving: a tenant at its cap only gets
+ * a slot that no tenant below its cap is waiting for, so a lone tenant can
+ * use every slot while a newly arriving one still gets the next free slot.
+ */
+@Service
+public class TenantScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantScheduler.class);
+
+    public static final String API_KEY_HEADER = "X-API-Key";
+    public static final String TENANT_HEADER = "X-Tenant-Id";
+    public static final String PRIORITY_HEADER = "X-Priority";
+    static final String ANONYMOUS = "anonymous";
+
+    // Cost granularity: a request costs one unit per 64 KB of upload, at least one
+    private static final long COST_UNIT_BYTES = 64L << 10;
+    private static final int MAX_TENANT_NAME_LENGTH = 64;
+    // Tenant names come from request headers, so idle ones are forgotten beyond this
+    private static final int MAX_TRACKED_TENANTS = 1000;
+
+    public enum Lane {
+        INTERACTIVE,
+        BATCH;
+
+        /**
+         * "batch" selects the batch lane; anything else, including no header, is interactive
+         */
+        public static Lane fromHeader(String priority) {
+            return priority != null && priority.trim().equalsIgnoreCase("batch") ? BATCH : INTERACTIVE;
+        }
+    }
+
+    private final int configuredTenantMaxConcurrent;
+    private final int tenantMaxQueued;
+    private final long queueTimeoutMs;
+    private final double[] laneWeights = new double[Lane.values().length];
+    private final Map<String, String> tenantsByApiKey;
+    private final Map<String, Double> tenantWeights;
+
+    // All state below is guarded by this
+    private final Map<String, TenantState> tenants = new LinkedHashMap<>();
+    // Per lane: start tag of the request last dispatched (the lane's virtual time)
+    private final double[] laneVirtualTime = new double[Lane.values().length];
+    // Per lane: stride-scheduling pass value; the lane with the lowest pass goes next
+    private final double[] lanePass = new double[Lane.values().length];
+    private final int[] laneQueued = new int[Lane.values().length];
+    private final Counters[] laneCounters = new Counters[Lane.values().length];
+    private double lastPass;
+    private int running;
+    private int maxConcurrent;
+    // Nodes sharing the limits in scale-out mode; a configured tenant cap is split between them
+    private int nodes = 1;
+
+    public TenantScheduler(@Value("${analyzer.scheduling.max-concurrent:0}") int maxConcurrent,
+            @Value("${analyzer.scheduling.tenant-max-concurrent:0}") int tenantMaxConcurrent,
+            @Value("${analyzer.scheduling.tenant-max-queued:500}") int tenantMaxQueued,
+            @Value("${analyzer.scheduling.queue-timeout-ms:30000}") long queueTimeoutMs,
+            @Value("${analyzer.scheduling.interactive-weight:9}") double interactiveWeight,
+            @Value("${analyzer.scheduling.batch-weight:1}") double batchWeight,
+            @Value("${analyzer.scheduling.api-keys:}") String apiKeys,
+            @Value("${analyzer.scheduling.tenant-weights:}") String tenantWeights) {
+        this.maxConcurrent = maxConcurrent > 0 ? maxConcurrent : Runtime.getRuntime().availableProcessors();
+        this.configuredTenantMaxConcurrent = tenantMaxConcurrent;
+        this.tenantMaxQueued = tenantMaxQueued;
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.laneWeights[Lane.INTERACTIVE.ordinal()] = Math.max(interactiveWeight, Double.MIN_NORMAL);
+        this.laneWeights[Lane.BATCH.ordinal()] = Math.max(batchWeight, Double.MIN_NORMAL);
+        for (Lane lane : Lane.values()) {
+            laneCounters[lane.ordinal()] = new Counters();
+        }
+        this.tenantsByApiKey = parseMapping(apiKeys);
+        this.tenantWeights = new HashMap<>();
+        parseMapping(tenantWeights).forEach((tenant, weight) -> {
+            try {
+                this.tenantWeights.put(tenant, Math.max(Double.parseDouble(weight), Double.MIN_NORMAL));
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring invalid weight '{}' for tenant {}", weight, tenant);
+            }
+        });
+        logger.info("Scheduling {} concurrent analyses, at most {} per tenant while others wait",
+                this.maxConcurrent, tenantMaxConcurrent());
+    }
+
+    /**
+     * Take this node's share of cluster-wide limits, e.g. as worker or API
+     * nodes join or leave: the cluster's concurrent analyses and any
+     * configured tenant cap are divided evenly between the given number of
+     * admitting nodes. Queued requests start at once if the limit grew.
+     */
+    public void setMaxConcurrent(int clusterMaxConcurrent, int nodes) {
+        int share = Math.max(1, nodes);
+        int limit = Math.max(1, clusterMaxConcurrent / share);
+        List<Ticket> ready;
+        synchronized (this) {
+            if (this.maxConcurrent == limit && this.nodes == share) {
+                return;
+            }
+            this.maxConcurrent = limit;
+            this.nodes = share;
+            logger.info("Scheduling {} concurrent analyses, at most {} per tenant while others wait",
+                    this.maxConcurrent, tenantMaxConcurrent());
+            ready = dispatch();
+        }
+        grant(ready);
+    }
+
+    /**
+     * Tenant for a request: the tenant mapped to its API key, a fingerprint
+     * of an unmapped key, the tenant header, or "anonymous", in that order
+     */
+    public String resolveTenant(String apiKey, String tenantHeader) {
+        if (apiKey != null && !apiKey.isBlank()) {
+            String mapped = tenantsByApiKey.get(apiKey.trim());
+            // Never expose the key itself in metrics
+            return mapped != null ? mapped : "key-" + fingerprint(apiKey.trim());
+        }
+        if (tenantHeader != null) {
+            String name = tenantHeader.trim().replaceAll("[^A-Za-z0-9._-]", "");
+            if (!name.isEmpty()) {
+                return name.length() > MAX_TENANT_NAME_LENGTH ? name.substring(0, MAX_TENANT_NAME_LENGTH) : name;
+            }
+        }
+        return ANONYMOUS;
+    }
+
+    /**
+     * Wait for the tenant's turn, blocking the calling thread. Fails with
+     * OVERLOADED if the tenant's queue is full or the turn does not come
+     * within queue-timeout-ms.
+     */
+    public TenantSlot acquire(String tenant, Lane lane, long sizeBytes) {
+        Ticket ticket = enqueue(tenant, lane, sizeBytes);
+        try {
+            return ticket.granted.get(queueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (ticket.granted.completeExceptionally(new CancellationException())) {
+                withdraw(ticket);
+                throw queueTimeout(ticket);
+            }
+            // Granted just as the wait ran out
+            return ticket.granted.join();
+        } catch (InterruptedException e) {
+            abandon(ticket);
+            Thread.currentThread().interrupt();
+            throw new AdmissionException(AdmissionException.Reason.OVERLOADED, "Interrupted while queued");
+        } catch (ExecutionException e) {
+            // The future is only ever completed with a slot or cancelled by abandon()
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #acquire}; the future completes when the
+     * tenant's turn comes
+     */
+    public CompletableFuture<TenantSlot> acquireAsync(String tenant, Lane lane, long sizeBytes) {
+        Ticket ticket;
+        try {
+            ticket = enqueue(tenant, lane, sizeBytes);
+        } catch (AdmissionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        ticket.granted.orTimeout(queueTimeoutMs, TimeUnit.MILLISECONDS).whenComplete((slot, error) -> {
+            if (error != null) {
+                withdraw(ticket);
+            }
+        });
+        return ticket.granted.exceptionallyCompose(error -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause()
+                    : error;
+            return CompletableFuture.failedFuture(cause instanceof TimeoutException ? queueTimeout(ticket) : cause);
+        });
+    }
+
+    public synchronized SchedulerStatistics snapshot() {
+        long now = System.currentTimeMillis();
+        SchedulerStatistics statistics = new SchedulerStatistics();
+        statistics.setMaxConcurrent(maxConcurrent);
+        statistics.setTenantMaxConcurrent(tenantMaxConcurrent());
+        statistics.setRunning(running);
+
+        Map<String, SchedulerStatistics.QueueStatistics> lanes = new LinkedHashMap<>();
+        int[] laneRunning = new int[Lane.values().length];
+        long[] laneOldest = new long[Lane.values().length];
+        Map<String, SchedulerStatistics.QueueStatistics> tenantStatistics = new TreeMap<>();
+        for (TenantState tenant : tenants.values()) {
+            int queued = 0;
+            long oldest = 0;
+            for (Lane lane : Lane.values()) {
+                ArrayDeque<Ticket> queue = tenant.queues.get(lane.ordinal());
+                queued += queue.size();
+                laneRunning[lane.ordinal()] += tenant.runningByLane[lane.ordinal()];
+                if (!queue.isEmpty()) {
+                    long age = now - queue.peek().enqueuedAt;
+                    oldest = Math.max(oldest, age);
+                    laneOldest[lane.ordinal()] = Math.max(laneOldest[lane.ordinal()], age);
+                }
+            }
+            tenantStatistics.put(tenant.name, tenant.counters.toStatistics(tenant.weight, queued, tenant.running,
+                    oldest));
+        }
+        for (Lane lane : Lane.values()) {
+            int i = lane.ordinal();
+            lanes.put(lane.name().toLowerCase(Locale.ROOT), laneCounters[i].toStatistics(laneWeights[i],
+                    laneQueued[i], laneRunning[i], laneOldest[i]));
+        }
+        statistics.setLanes(lanes);
+        statistics.setTenants(tenantStatistics);
+        return statistics;
+    }
+
+    private Ticket enqueue(String tenantName, Lane lane, long sizeBytes) {
+        long cost = Math.max(1, (sizeBytes + COST_UNIT_BYTES - 1) / COST_UNIT_BYTES);
+        Ticket ticket;
+        List<Ticket> ready;
+        synchronized (this) {
+            TenantState tenant = tenant(tenantName);
+            int l = lane.ordinal();
+            if (tenant.queued() >= tenantMaxQueued) {
+                tenant.counters.rejected++;
+                laneCounters[l].rejected++;
+                throw new AdmissionException(AdmissionException.Reason.OVERLOADED,
+                        "Too many queued documents for tenant " + tenantName);
+            }
+            if (laneQueued[l] == 0) {
+                // A lane returning from idle must not have banked credit while it had no work
+                lanePass[l] = Math.max(lanePass[l], lastPass);
+            }
+            // Likewise a tenant returning from idle starts at the lane's current virtual time
+            double start = Math.max(laneVirtualTime[l], tenant.lastFinish[l]);
+            tenant.lastFinish[l] = start + cost / tenant.weight;
+
+            ticket = new Ticket(tenant, lane, cost, start);
+            tenant.queues.get(l).add(ticket);
+            laneQueued[l]++;
+            ready = dispatch();
+        }
+        grant(ready);
+        return ticket;
+    }
+
+    void release(Ticket ticket) {
+        List<Ticket> ready;
+        synchronized (this) {
+            ticket.tenant.running--;
+            ticket.tenant.runningByLane[ticket.lane.ordinal()]--;
+            running--;
+            ready = dispatch();
+        }
+        grant(ready);
+    }
+
+    /**
+     * Start as many queued requests as the concurrency limits allow. Called
+     * with the lock held; the returned tickets are granted outside it.
+     */
+    private List<Ticket> dispatch() {
+        List<Ticket> ready = new ArrayList<>();
+        while (running < maxConcurrent) {
+            // Tenants below their cap first; a slot nobody below the cap wants goes to the rest
+            Ticket next = next(true);
+            if (next == null) {
+                next = next(false);
+            }
+            if (next == null) {
+                break;
+            }
+
+            int l = next.lane.ordinal();
+            next.tenant.queues.get(l).poll();
+            laneQueued[l]--;
+            next.tenant.running++;
+            next.tenant.runningByLane[l]++;
+            running++;
+
+            laneVirtualTime[l] = next.startTag;
+            lastPass = lanePass[l];
+            lanePass[l] += next.cost / laneWeights[l];
+
+            long waitMs = System.currentTimeMillis() - next.enqueuedAt;
+            next.tenant.counters.recordDispatch(waitMs);
+            laneCounters[l].recordDispatch(waitMs);
+            ready.add(next);
+        }
+        return ready;
+    }
+
+    /**
+     * The next request of the lane with the lowest pass
+     */
+    private Ticket next(boolean belowCapOnly) {
+        Ticket next = null;
+        for (Lane lane : Lane.values()) {
+            Ticket candidate = nextInLane(lane, belowCapOnly);
+            if (candidate != null && (next == null || lanePass[lane.ordinal()] < lanePass[next.lane.ordinal()])) {
+                next = candidate;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * The queued request with the lowest start tag, optionally only among
+     * tenants below their concurrency cap
+     */
+    private Ticket nextInLane(Lane lane, boolean belowCapOnly) {
+        int cap = tenantMaxConcurrent();
+        Ticket next = null;
+        for (TenantState tenant : tenants.values()) {
+            Ticket head = tenant.queues.get(lane.ordinal()).peek();
+            if (head != null && (!belowCapOnly || tenant.running < cap)
+                    && (next == null || head.startTag < next.startTag)) {
+                next = head;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * The configured per-tenant cap, by default half the slots
+     */
+    private synchronized int tenantMaxConcurrent() {
+        return configuredTenantMaxConcurrent > 0
+                ? Math.min(Math.max(1, configuredTenantMaxConcurrent / nodes), maxConcurrent)
+                : Math.max(1, maxConcurrent / 2);
+    }
+
+    private void grant(List<Ticket> ready) {
+        for (Ticket ticket : ready) {
+            if (!ticket.granted.complete(new TenantSlot(this, ticket))) {
+                // The caller gave up just as its turn came
+                release(ticket);
+            }
+        }
+    }
+
+    /**
+     * The caller stopped waiting: drop its ticket, or return the slot if it
+     * was granted in the meantime
+     */
+    private void abandon(Ticket ticket) {
+        if (ticket.granted.completeExceptionally(new CancellationException())) {
+            withdraw(ticket);
+        } else {
+            ticket.granted.join().close();
+        }
+    }
+
+    private synchronized void withdraw(Ticket ticket) {
+        if (ticket.tenant.queues.get(ticket.lane.ordinal()).remove(ticket)) {
+            laneQueued[ticket.lane.ordinal()]--;
+            ticket.tenant.counters.rejected++;
+            laneCounters[ticket.lane.ordinal()].rejected++;
+        }
+    }
+
+    private AdmissionException queueTimeout(Ticket ticket) {
+        return new AdmissionException(AdmissionException.Reason.OVERLOADED, "No analysis slot for tenant "
+                + ticket.tenant.name + " within " + queueTimeoutMs + " ms");
+    }
+
+    private TenantState tenant(String name) {
+        TenantState tenant = tenants.get(name);
+        if (tenant != null) {
+            return tenant;
+        }
+        if (tenants.size() >= MAX_TRACKED_TENANTS) {
+            // Oldest first; idle tenants have nothing queued whose ordering could be affected
+            Iterator<TenantState> iterator = tenants.values().iterator();
+            while (iterator.hasNext() && tenants.size() >= MAX_TRACKED_TENANTS) {
+                TenantState candidate = iterator.next();
+                if (candidate.running == 0 && candidate.queued() == 0) {
+                    iterator.remove();
+                }
+            }
+        }
+        tenant = new TenantState(name, tenantWeights.getOrDefault(name, 1.0));
+        tenants.put(name, tenant);
+        return tenant;
+    }
+
+    private static Map<String, String> parseMapping(String mapping) {
+        Map<String, String> result = new HashMap<>();
+        for (String entry : mapping.split(",")) {
+            int separator = entry.indexOf('=');
+            if (separator > 0) {
+                result.put(entry.substring(0, separator).trim(), entry.substring(separator + 1).trim());
+            }
+        }
+        return result;
+    }
+
+    private static String fingerprint(String apiKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(apiKey.getBytes(StandardCharsets.UTF_8));
+            return String.format("%02x%02x%02x%02x", digest[0], digest[1], digest[2], digest[3]);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static final class Ticket {
+        final TenantState tenant;
+        final Lane lane;
+        final long cost;
+        final double startTag;
+        final long enqueuedAt = System.currentTimeMillis();
+        final CompletableFuture<TenantSlot> granted = new CompletableFuture<>();
+
+        Ticket(TenantState tenant, Lane lane, long cost, double startTag) {
+            this.tenant = tenant;
+            this.lane = lane;
+            this.cost = cost;
+            this.startTag = startTag;
+        }
+    }
+
+    static final class TenantState {
+        final String name;
+        final double weight;
+        final List<ArrayDeque<Ticket>> queues = new ArrayList<>();
+        // Per lane: finish tag of the tenant's last queued request
+        final double[] lastFinish = new double[Lane.values().length];
+        final int[] runningByLane = new int[Lane.values().length];
+        final Counters counters = new Counters();
+        int running;
+
+        TenantState(String name, double weight) {
+            this.name = name;
+            this.weight = weight;
+            for (Lane lane : Lane.values()) {
+                queues.add(new ArrayDeque<>());
+            }
+        }
+
+        int queued() {
+            int queued = 0;
+            for (ArrayDeque<Ticket> queue : queues) {
+                queued += queue.size();
+            }
+            return queued;
+        }
+    }
+
+    private static final class Counters {
+        long dispatched;
+        long rejected;
+        long totalWaitMs;
+        long maxWaitMs;
+
+        void recordDispatch(long waitMs) {
+            dispatched++;
+            totalWaitMs += waitMs;
+            maxWaitMs = Math.max(maxWaitMs, waitMs);
+        }
+
+        SchedulerStatistics.QueueStatistics toStatistics(double weight, int queued, int running, long oldest) {
+            SchedulerStatistics.QueueStatistics statistics = new SchedulerStatistics.QueueStatistics();
+            statistics.setWeight(weight);
+            statistics.setQueued(queued);
+            statistics.setRunning(running);
+            statistics.setDispatched(dispatched);
+            statistics.setRejected(rejected);
+            statistics.setAverageWaitMs(dispatched > 0 ? totalWaitMs / dispatched : 0);
+            statistics.setMaxWaitMs(maxWaitMs);
+            statistics.setOldestQueuedMs(oldest);
+            return statistics;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.analyzer.scheduling;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Permission for one tenant to run one analysis. Closing it frees the
+ * tenant's and the global concurrency slot and lets the scheduler dispatch
+ * the next queued request.
+ */
+public class TenantSlot implements AutoCloseable {
+
+    private final TenantScheduler scheduler;
+    private final TenantScheduler.Ticket ticket;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    TenantSlot(TenantScheduler scheduler, TenantScheduler.Ticket ticket) {
+        this.scheduler = scheduler;
+        this.ticket = ticket;
+    }
+
+    public String getTenant() {
+        return ticket.tenant.name;
+    }
+
+    public TenantScheduler.Lane getLane() {
+        return ticket.lane;
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            scheduler.release(ticket);
+        }
+    }
+}
@@ -6,6 +6,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Pattern;
 
 @Service
@@ -14,15 +17,19 @@ public class AiAnalysisService {
     private static final Logger logger = LoggerFactory.getLogger(AiAnalysisService.class);
 
     private final AwsComprehendService awsComprehendService;
+    private final TextRankSummarizer summarizer;
     private final boolean useRealAwsService;
 
     // Constructor injection with optional AWS service
     public AiAnalysisService(@Autowired(required = false) AwsComprehendService awsComprehendService,
+            TextRankSummarizer summarizer,
             @Value("${aws.comprehend.use-real-service:false}") boolean useRealAwsService) {
         this.awsComprehendService = awsComprehendService;
+        this.summarizer = summarizer;
         this.useRealAwsService = useRealAwsService;
 
-        if (useRealAwsService && awsComprehendService != null && awsComprehendService.isAvailable()) {
+        if (useRealAwsService && awsComprehendService != null) {
+            // The client connects in the background; the mock serves requests until it is available
             logger.info("AiAnalysisService initialized with real AWS Comprehend service");
         } else {
             logger.info("AiAnalysisService initialized with mock implementation (AWS not available or disabled)");
@@ -53,14 +60,112 @@ public class AiAnalysisService {
      * Comprehensive document analysis combining all AI capabilities
      */
     public ComprehensiveAnalysisResult analyzeDocument(String text) {
-        SentimentAnalysisResult sentiment = analyzeSentiment(text);
-        List<String> keyPhrases = extractKeyPhrases(text);
+        // Tokenize once; the mock analyzers and the summarizer share the token stream
+        String[] tokens = tokenize(text);
+
+        SentimentAnalysisResult sentiment = analyzeSentiment(text, tokens);
+        List<String> keyPhrases = extractKeyPhrases(text, tokens);
         List<EntityResult> entities = extractEntities(text);
+        String summary = tokens.length > 0 ? summarizer.summarize(tokens) : null;
 
-        return new ComprehensiveAnalysisResult(sentiment, keyPhrases, entities);
+        return new ComprehensiveAnalysisResult(sentiment, keyPhrases, entities, summary);
+    }
+
+    /**
+     * Sentiment, key phrases and entities of one chunk of a document; no
+     * summary. Used to analyze only the changed parts of a revision.
+     */
+    public ComprehensiveAnalysisResult analyzeChunk(String text) {
+        String[] tokens = tokenize(text);
+        if (text == null || text.trim().isEmpty() || !useRealAwsService || awsComprehendService == null) {
+            return new ComprehensiveAnalysisResult(analyzeSentiment(text, tokens), extractKeyPhrases(text, tokens),
+                    extractEntities(text), null);
+        }
+
+        if (awsComprehendService.isAvailable()) {
+            try {
+                return new ComprehensiveAnalysisResult(awsComprehendService.analyzeSentiment(text),
+                        awsComprehendService.extractKeyPhrases(text), awsComprehendService.extractEntities(text),
+                        null);
+            } catch (Exception e) {
+                logger.warn("AWS Comprehend chunk analysis failed, falling back to mock: {}", e.getMessage());
+            }
+        }
+
+        // Comprehend is enabled but unavailable or failing; flag the mock result so that it is not kept per chunk
+        return new ComprehensiveAnalysisResult(analyzeSentimentMock(tokens), extractKeyPhrasesMock(tokens),
+                extractEntitiesMock(text), null, true);
+    }
+
+    /**
+     * Extractive summary of a whole document; local, never AWS
+     */
+    public String summarize(String text) {
+        String[] tokens = tokenize(text);
+        return tokens.length > 0 ? summarizer.summarize(tokens) : null;
+    }
+
+    /**
+     * Asynchronous variant used by the reactive API. AWS Comprehend calls go
+     * through the non-blocking client; mock fallbacks and the summary run on
+     * the supplied CPU executor.
+     */
+    public CompletableFuture<ComprehensiveAnalysisResult> analyzeDocumentAsync(String text, Executor cpuExecutor) {
+        return analyzeAsync(text, cpuExecutor, true);
+    }
+
+    /**
+     * Asynchronous variant of {@link #analyzeChunk(String)}
+     */
+    public CompletableFuture<ComprehensiveAnalysisResult> analyzeChunkAsync(String text, Executor cpuExecutor) {
+        return analyzeAsync(text, cpuExecutor, false);
+    }
+
+    private CompletableFuture<ComprehensiveAnalysisResult> analyzeAsync(String text, Executor cpuExecutor,
+            boolean withSummary) {
+        if (text == null || text.trim().isEmpty()
+                || !(useRealAwsService && awsComprehendService != null && awsComprehendService.isAvailable())) {
+            return CompletableFuture.supplyAsync(() -> withSummary ? analyzeDocument(text) : analyzeChunk(text),
+                    cpuExecutor);
+        }
+
+        String[] tokens = tokenize(text);
+        AtomicBoolean fallback = new AtomicBoolean();
+        logger.debug("Using AWS Comprehend async client for document analysis");
+
+        CompletableFuture<SentimentAnalysisResult> sentiment = awsComprehendService.analyzeSentimentAsync(text)
+                .exceptionallyAsync(e -> {
+                    fallback.set(true);
+                    logger.warn("AWS Comprehend sentiment analysis failed, falling back to mock: {}", e.getMessage());
+                    return analyzeSentimentMock(tokens);
+                }, cpuExecutor);
+        CompletableFuture<List<String>> keyPhrases = awsComprehendService.extractKeyPhrasesAsync(text)
+                .exceptionallyAsync(e -> {
+                    fallback.set(true);
+                    logger.warn("AWS Comprehend key phrase extraction failed, falling back to mock: {}",
+                            e.getMessage());
+                    return extractKeyPhrasesMock(tokens);
+                }, cpuExecutor);
+        CompletableFuture<List<EntityResult>> entities = awsComprehendService.extractEntitiesAsync(text)
+                .exceptionallyAsync(e -> {
+                    fallback.set(true);
+                    logger.warn("AWS Comprehend entity extraction failed, falling back to mock: {}", e.getMessage());
+                    return extractEntitiesMock(text);
+                }, cpuExecutor);
+        CompletableFuture<String> summary = withSummary
+                ? CompletableFuture.supplyAsync(() -> summarizer.summarize(tokens), cpuExecutor)
+                : CompletableFuture.completedFuture(null);
+
+        return CompletableFuture.allOf(sentiment, keyPhrases, entities, summary)
+                .thenApply(ignored -> new ComprehensiveAnalysisResult(sentiment.join(), keyPhrases.join(),
+                        entities.join(), summary.join(), fallback.get()));
     }
 
     public SentimentAnalysisResult analyzeSentiment(String text) {
+        return analyzeSentiment(text, tokenize(text));
+    }
+
+    private SentimentAnalysisResult analyzeSentiment(String text, String[] tokens) {
         if (text == null || text.trim().isEmpty()) {
             return new SentimentAnalysisResult(NEUTRAL_SENTIMENT, 0.0f, 0.0f, 1.0f, 0.0f);
         }
@@ -77,16 +182,13 @@ public class AiAnalysisService {
 
         // Fallback to mock implementation
         logger.debug("Using mock implementation for sentiment analysis");
-        return analyzeSentimentMock(text);
+        return analyzeSentimentMock(tokens);
     }
 
     /**
      * Mock sentiment analysis implementation (fallback when AWS is not available)
      */
-    private SentimentAnalysisResult analyzeSentimentMock(String text) {
-
-        String lowerText = text.toLowerCase();
-        String[] words = lowerText.split("\\s+");
+    private SentimentAnalysisResult analyzeSentimentMock(String[] words) {
 
         double totalScore = 0.0;
         int wordCount = 0;
@@ -147,6 +249,10 @@ public class AiAnalysisService {
     }
 
     public List<String> extractKeyPhrases(String text) {
+        return extractKeyPhrases(text, tokenize(text));
+    }
+
+    private List<String> extractKeyPhrases(String text, String[] tokens) {
         if (text == null || text.trim().isEmpty()) {
             return new ArrayList<>();
         }
@@ -163,17 +269,16 @@ public class AiAnalysisService {
 
         // Fallback to mock implementation
         logger.debug("Using mock implementation for key phrase extraction");
-        return extractKeyPhrasesMock(text);
+        return extractKeyPhrasesMock(tokens);
     }
 
     /**
      * Mock key phrase extraction implementation (fallback when AWS is not
      * available)
      */
-    private List<String> extractKeyPhrasesMock(String text) {
+    private List<String> extractKeyPhrasesMock(String[] words) {
 
         Map<String, Integer> phraseFrequency = new HashMap<>();
-        String[] words = text.toLowerCase().split("\\s+");
 
         // Extract meaningful single words and two-word phrases
         for (int i = 0; i < words.length; i++) {
@@ -262,6 +367,13 @@ public class AiAnalysisService {
                 .toList();
     }
 
+    private String[] tokenize(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return new String[0];
+        }
+        return text.trim().split("\\s+");
+    }
+
     private String cleanWord(String word) {
         return word.replaceAll("[^a-zA-Z]", "").toLowerCase();
     }
@@ -360,12 +472,21 @@ public class AiAnalysisService {
         private final SentimentAnalysisResult sentiment;
         private final List<String> keyPhrases;
         private final List<EntityResult> entities;
+        private final String summary;
+        private final boolean fallback;
 
         public ComprehensiveAnalysisResult(SentimentAnalysisResult sentiment, List<String> keyPhrases,
-                List<EntityResult> entities) {
+                List<EntityResult> entities, String summary) {
+            this(sentiment, keyPhrases, entities, summary, false);
+        }
+
+        public ComprehensiveAnalysisResult(SentimentAnalysisResult sentiment, List<String> keyPhrases,
+                List<EntityResult> entities, String summary, boolean fallback) {
             this.sentiment = sentiment;
             this.keyPhrases = keyPhrases;
             this.entities = entities;
+            this.summary = summary;
+            this.fallback = fallback;
         }
 
         public SentimentAnalysisResult getSentiment() {
@@ -379,5 +500,17 @@ public class AiAnalysisService {
         public List<EntityResult> getEntities() {
             return entities;
         }
+
+        public String getSummary() {
+            return summary;
+        }
+
+        /**
+         * Whether AWS Comprehend is enabled but the mock stood in for some of
+         * this result because Comprehend was unavailable or failed
+         */
+        public boolean isFallback() {
+            return fallback;
+        }
     }
 }
\ No newline at end of file
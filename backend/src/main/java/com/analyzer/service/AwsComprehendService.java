@@ -1,5 +1,7 @@
 package com.analyzer.service;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -7,10 +9,15 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.comprehend.ComprehendAsyncClient;
+import software.amazon.awssdk.services.comprehend.ComprehendAsyncClientBuilder;
 import software.amazon.awssdk.services.comprehend.ComprehendClient;
+import software.amazon.awssdk.services.comprehend.ComprehendClientBuilder;
 import software.amazon.awssdk.services.comprehend.model.*;
 
+import java.net.URI;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
@@ -24,44 +31,92 @@ public class AwsComprehendService {
 
     private static final Logger logger = LoggerFactory.getLogger(AwsComprehendService.class);
 
-    private final ComprehendClient comprehendClient;
-    private final boolean isServiceAvailable;
+    public enum Status {
+        INITIALIZING, AVAILABLE, UNAVAILABLE
+    }
 
-    public AwsComprehendService(@Value("${aws.region:us-east-1}") String region) {
-        ComprehendClient client = null;
-        boolean available = false;
+    private final String region;
+    private final String endpoint;
+
+    // Built in the background; requests use the mock implementation until AVAILABLE
+    private volatile ComprehendClient comprehendClient;
+    private volatile ComprehendAsyncClient comprehendAsyncClient;
+    private volatile Status status = Status.INITIALIZING;
 
+    public AwsComprehendService(@Value("${aws.region:us-east-1}") String region,
+            @Value("${aws.comprehend.endpoint:}") String endpoint) {
+        this.region = region;
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Build the clients and probe the service off the startup path. The probe
+     * can hang for the SDK timeout on a slow network, which used to block the
+     * whole application context.
+     */
+    @PostConstruct
+    public void initializeInBackground() {
+        Thread initializer = new Thread(this::initialize, "comprehend-init");
+        initializer.setDaemon(true);
+        initializer.start();
+    }
+
+    private void initialize() {
+        ComprehendClient client = null;
         try {
+            long start = System.currentTimeMillis();
             logger.info("Initializing AWS Comprehend service in region: {}", region);
-            client = ComprehendClient.builder()
+            ComprehendClientBuilder builder = ComprehendClient.builder()
                     .region(Region.of(region))
-                    .credentialsProvider(DefaultCredentialsProvider.create())
-                    .build();
+                    .credentialsProvider(DefaultCredentialsProvider.create());
+
+            // Endpoint override, e.g. the local stub in tools/loadtest
+            if (!endpoint.isBlank()) {
+                logger.info("Using AWS Comprehend endpoint override: {}", endpoint);
+                builder.endpointOverride(URI.create(endpoint));
+            }
+            client = builder.build();
 
             // Test the connection
             client.listDocumentClassifiers(ListDocumentClassifiersRequest.builder().maxResults(1).build());
-            available = true;
-            logger.info("AWS Comprehend service successfully initialized");
+
+            // Non-blocking client for the reactive API
+            ComprehendAsyncClientBuilder asyncBuilder = ComprehendAsyncClient.builder()
+                    .region(Region.of(region))
+                    .credentialsProvider(DefaultCredentialsProvider.create());
+            if (!endpoint.isBlank()) {
+                asyncBuilder.endpointOverride(URI.create(endpoint));
+            }
+
+            comprehendClient = client;
+            comprehendAsyncClient = asyncBuilder.build();
+            status = Status.AVAILABLE;
+            logger.info("AWS Comprehend service successfully initialized in {} ms",
+                    System.currentTimeMillis() - start);
 
         } catch (Exception e) {
             logger.warn("AWS Comprehend service not available: {}. Falling back to mock implementation.",
                     e.getMessage());
-            available = false;
+            if (client != null) {
+                client.close();
+            }
+            status = Status.UNAVAILABLE;
         }
-
-        this.comprehendClient = client;
-        this.isServiceAvailable = available;
     }
 
     public boolean isAvailable() {
-        return isServiceAvailable;
+        return status == Status.AVAILABLE;
+    }
+
+    public Status getStatus() {
+        return status;
     }
 
     /**
      * Analyze sentiment using AWS Comprehend
      */
     public AiAnalysisService.SentimentAnalysisResult analyzeSentiment(String text) {
-        if (!isServiceAvailable || comprehendClient == null) {
+        if (!isAvailable() || comprehendClient == null) {
             throw new RuntimeException("AWS Comprehend service not available");
         }
 
@@ -91,7 +146,7 @@ public class AwsComprehendService {
      * Extract key phrases using AWS Comprehend
      */
     public List<String> extractKeyPhrases(String text) {
-        if (!isServiceAvailable || comprehendClient == null) {
+        if (!isAvailable() || comprehendClient == null) {
             throw new RuntimeException("AWS Comprehend service not available");
         }
 
@@ -117,7 +172,7 @@ public class AwsComprehendService {
      * Extract entities using AWS Comprehend
      */
     public List<AiAnalysisService.EntityResult> extractEntities(String text) {
-        if (!isServiceAvailable || comprehendClient == null) {
+        if (!isAvailable() || comprehendClient == null) {
             throw new RuntimeException("AWS Comprehend service not available");
         }
 
@@ -142,11 +197,77 @@ public class AwsComprehendService {
         }
     }
 
+    /**
+     * Analyze sentiment without blocking the calling thread
+     */
+    public CompletableFuture<AiAnalysisService.SentimentAnalysisResult> analyzeSentimentAsync(String text) {
+        if (!isAvailable() || comprehendAsyncClient == null) {
+            return CompletableFuture.failedFuture(new RuntimeException("AWS Comprehend service not available"));
+        }
+
+        DetectSentimentRequest request = DetectSentimentRequest.builder()
+                .text(text)
+                .languageCode(LanguageCode.EN)
+                .build();
+
+        return comprehendAsyncClient.detectSentiment(request)
+                .thenApply(response -> {
+                    SentimentScore scores = response.sentimentScore();
+                    return new AiAnalysisService.SentimentAnalysisResult(
+                            response.sentiment().toString(),
+                            scores.positive(),
+                            scores.negative(),
+                            scores.neutral(),
+                            scores.mixed());
+                });
+    }
+
+    /**
+     * Extract key phrases without blocking the calling thread
+     */
+    public CompletableFuture<List<String>> extractKeyPhrasesAsync(String text) {
+        if (!isAvailable() || comprehendAsyncClient == null) {
+            return CompletableFuture.failedFuture(new RuntimeException("AWS Comprehend service not available"));
+        }
+
+        DetectKeyPhrasesRequest request = DetectKeyPhrasesRequest.builder()
+                .text(text)
+                .languageCode(LanguageCode.EN)
+                .build();
+
+        return comprehendAsyncClient.detectKeyPhrases(request)
+                .thenApply(response -> response.keyPhrases().stream()
+                        .map(KeyPhrase::text)
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * Extract entities without blocking the calling thread
+     */
+    public CompletableFuture<List<AiAnalysisService.EntityResult>> extractEntitiesAsync(String text) {
+        if (!isAvailable() || comprehendAsyncClient == null) {
+            return CompletableFuture.failedFuture(new RuntimeException("AWS Comprehend service not available"));
+        }
+
+        DetectEntitiesRequest request = DetectEntitiesRequest.builder()
+                .text(text)
+                .languageCode(LanguageCode.EN)
+                .build();
+
+        return comprehendAsyncClient.detectEntities(request)
+                .thenApply(response -> response.entities().stream()
+                        .map(entity -> new AiAnalysisService.EntityResult(
+                                entity.text(),
+                                entity.type().toString(),
+                                entity.score()))
+                        .collect(Collectors.toList()));
+    }
+
     /**
      * Detect the language of the text
      */
     public String detectLanguage(String text) {
-        if (!isServiceAvailable || comprehendClient == null) {
+        if (!isAvailable() || comprehendClient == null) {
             return "en"; // Default fallback
         }
 
@@ -168,6 +289,7 @@ public class AwsComprehendService {
         }
     }
 
+    @PreDestroy
     public void shutdown() {
         if (comprehendClient != null) {
             try {
@@ -177,5 +299,12 @@ public class AwsComprehendService {
                 logger.error("Error closing AWS Comprehend client", e);
             }
         }
+        if (comprehendAsyncClient != null) {
+            try {
+                comprehendAsyncClient.close();
+            } catch (Exception e) {
+                logger.error("Error closing AWS Comprehend async client", e);
+            }
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,242 @@
+package com.analyzer.service;
+
+import com.analyzer.cluster.AnalysisResultStore;
+import com.analyzer.model.CorpusStatistics;
+import com.analyzer.model.DocumentAnalysis;
+import com.analyzer.model.DocumentEntity;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Corpus-wide aggregates maintained as analyses are stored, so that
+ * /api/documents/stats never has to scan the result store.
+ *
+ * Each document updates a sentiment histogram for its time bucket,
+ * space-saving heavy-hitter sketches for entities and key phrases, and
+ * file-type and size distributions. Every structure is bounded by
+ * configuration rather than by corpus size, so both recording a document
+ * and taking a snapshot take constant time. The only exception is the set
+ * of recorded ids (8-16 bytes per document), which keeps a document from
+ * being counted twice when several paths deliver it to this node.
+ *
+ * In scale-out mode results are written to the shared store by whichever
+ * worker analyzed them. Each node counts the results it writes itself and
+ * re-streams the store's ids every analyzer.stats.refresh-interval-ms for
+ * the rest, so that every node converges on the same aggregates.
+ */
+@Service
+public class CorpusStatisticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CorpusStatisticsService.class);
+
+    private static final DateTimeFormatter BUCKET_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    // Upper bounds of the file size bins, in bytes; the last bin is open-ended
+    private static final long[] SIZE_BOUNDS = { 10L << 10, 100L << 10, 1L << 20, 10L << 20 };
+    private static final String[] SIZE_LABELS = { "<10KB", "10KB-100KB", "100KB-1MB", "1MB-10MB", ">=10MB" };
+
+    private final AnalysisResultStore analysisStorage;
+    private final long bucketMinutes;
+    private final int maxBuckets;
+    private final int topTerms;
+    private final boolean scaleOut;
+    private final long refreshIntervalMs;
+
+    // Keyed by bucket start in epoch minutes; the oldest bucket is dropped past maxBuckets
+    private final TreeMap<Long, Map<String, Long>> sentimentBuckets = new TreeMap<>();
+    private final Map<String, Long> sentimentTotals = new HashMap<>();
+    private final SpaceSavingCounter entityCounts;
+    private final SpaceSavingCounter keyPhraseCounts;
+    private final Map<String, Long> fileTypes = new HashMap<>();
+    private final long[] fileSizes = new long[SIZE_LABELS.length];
+    private final DocumentIdSet recorded = new DocumentIdSet();
+    private long totalDocuments;
+    private long totalBytes;
+
+    private ScheduledExecutorService refreshExecutor;
+
+    public CorpusStatisticsService(AnalysisResultStore analysisStorage,
+            @Value("${analyzer.stats.bucket-minutes:60}") long bucketMinutes,
+            @Value("${analyzer.stats.buckets:48}") int maxBuckets,
+            @Value("${analyzer.stats.sketch-capacity:1000}") int sketchCapacity,
+            @Value("${analyzer.stats.top-terms:20}") int topTerms,
+            @Value("${analyzer.node.role:standalone}") String role,
+            @Value("${analyzer.stats.refresh-interval-ms:10000}") long refreshIntervalMs) {
+        this.analysisStorage = analysisStorage;
+        this.bucketMinutes = Math.max(1, bucketMinutes);
+        this.maxBuckets = Math.max(1, maxBuckets);
+        this.topTerms = topTerms;
+        this.entityCounts = new SpaceSavingCounter(sketchCapacity);
+        this.keyPhraseCounts = new SpaceSavingCounter(sketchCapacity);
+        this.scaleOut = !"standalone".equals(role);
+        this.refreshIntervalMs = Math.max(1, refreshIntervalMs);
+    }
+
+    /**
+     * Rebuild the aggregates from analyses that outlived the previous run
+     * (file-backed store), then in scale-out mode keep picking up results
+     * written by other nodes
+     */
+    @PostConstruct
+    public void loadExisting() {
+        long loaded = refresh();
+        if (loaded > 0) {
+            logger.info("Loaded corpus statistics for {} stored analyses", loaded);
+        }
+        if (scaleOut) {
+            refreshExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "stats-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+            refreshExecutor.scheduleWithFixedDelay(this::refreshQuietly, refreshIntervalMs, refreshIntervalMs,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Record every stored analysis not counted yet. Streams the store's ids
+     * and only decodes the new ones, one at a time.
+     *
+     * @return the number of analyses added
+     */
+    public long refresh() {
+        long[] added = new long[1];
+        analysisStorage.forEachId(id -> {
+            if (!isRecorded(id)) {
+                DocumentAnalysis analysis = analysisStorage.get(id);
+                if (analysis != null) {
+                    record(analysis);
+                    added[0]++;
+                }
+            }
+        });
+        return added[0];
+    }
+
+    private void refreshQuietly() {
+        try {
+            long added = refresh();
+            logger.debug("Added {} analyses stored by other nodes to corpus statistics", added);
+        } catch (Exception e) {
+            logger.warn("Cannot refresh corpus statistics from the result store: {}", e.getMessage());
+        }
+    }
+
+    private synchronized boolean isRecorded(String documentId) {
+        return recorded.contains(documentId);
+    }
+
+    /**
+     * Add a document to the aggregates; a document already recorded, e.g.
+     * one re-analyzed after a worker takeover, is ignored
+     */
+    public synchronized void record(DocumentAnalysis analysis) {
+        if (!recorded.add(analysis.getId())) {
+            return;
+        }
+        totalDocuments++;
+        totalBytes += analysis.getFileSize();
+
+        String sentiment = analysis.getSentiment() != null ? analysis.getSentiment() : "UNKNOWN";
+        sentimentTotals.merge(sentiment, 1L, Long::sum);
+        if (analysis.getAnalyzedAt() != null) {
+            long epochMinutes = analysis.getAnalyzedAt().toEpochSecond(ZoneOffset.UTC) / 60;
+            long bucket = epochMinutes - Math.floorMod(epochMinutes, bucketMinutes);
+            // Late arrivals older than the retained window only count towards the totals
+            if (sentimentBuckets.size() < maxBuckets || bucket >= sentimentBuckets.firstKey()) {
+                sentimentBuckets.computeIfAbsent(bucket, key -> new HashMap<>()).merge(sentiment, 1L, Long::sum);
+                if (sentimentBuckets.size() > maxBuckets) {
+                    sentimentBuckets.pollFirstEntry();
+                }
+            }
+        }
+
+        // Count documents mentioning a term, not raw mentions
+        if (analysis.getEntities() != null) {
+            Set<String> seen = new HashSet<>();
+            for (DocumentEntity entity : analysis.getEntities()) {
+                if (entity.getText() != null && seen.add(entity.getText())) {
+                    entityCounts.add(entity.getText());
+                }
+            }
+        }
+        if (analysis.getKeyPhrases() != null) {
+            Set<String> seen = new HashSet<>();
+            for (String phrase : analysis.getKeyPhrases()) {
+                String term = phrase.toLowerCase(Locale.ROOT);
+                if (seen.add(term)) {
+                    keyPhraseCounts.add(term);
+                }
+            }
+        }
+
+        fileTypes.merge(analysis.getFileType() != null ? analysis.getFileType() : "unknown", 1L, Long::sum);
+        fileSizes[sizeBin(analysis.getFileSize())]++;
+    }
+
+    public synchronized CorpusStatistics snapshot() {
+        CorpusStatistics statistics = new CorpusStatistics();
+        statistics.setTotalDocuments(totalDocuments);
+        statistics.setTotalBytes(totalBytes);
+
+        Map<String, Map<String, Long>> byPeriod = new LinkedHashMap<>();
+        sentimentBuckets.forEach((bucket, counts) -> byPeriod.put(
+                LocalDateTime.ofEpochSecond(bucket * 60, 0, ZoneOffset.UTC).format(BUCKET_FORMAT),
+                new HashMap<>(counts)));
+        statistics.setSentimentByPeriod(byPeriod);
+        statistics.setSentimentTotals(new HashMap<>(sentimentTotals));
+
+        statistics.setTopEntities(toTermCounts(entityCounts.top(topTerms)));
+        statistics.setTopKeyPhrases(toTermCounts(keyPhraseCounts.top(topTerms)));
+
+        statistics.setFileTypes(new HashMap<>(fileTypes));
+        Map<String, Long> sizes = new LinkedHashMap<>();
+        for (int i = 0; i < SIZE_LABELS.length; i++) {
+            sizes.put(SIZE_LABELS[i], fileSizes[i]);
+        }
+        statistics.setFileSizes(sizes);
+        return statistics;
+    }
+
+    private static List<CorpusStatistics.TermCount> toTermCounts(List<SpaceSavingCounter.Counter> counters) {
+        return counters.stream()
+                .map(counter -> new CorpusStatistics.TermCount(counter.term, counter.count, counter.error))
+                .toList();
+    }
+
+    private static int sizeBin(long fileSize) {
+        for (int i = 0; i < SIZE_BOUNDS.length; i++) {
+            if (fileSize < SIZE_BOUNDS[i]) {
+                return i;
+            }
+        }
+        return SIZE_BOUNDS.length;
+    }
+}
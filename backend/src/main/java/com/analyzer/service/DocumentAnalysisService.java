@@ -1,115 +1,407 @@
 package com.analyzer.service;
 
+import com.analyzer.admission.MemoryReservation;
+import com.analyzer.admission.UploadAdmission;
+import com.analyzer.cluster.AnalysisJob;
+import com.analyzer.cluster.AnalysisJobQueue;
+import com.analyzer.cluster.AnalysisPendingException;
+import com.analyzer.cluster.AnalysisResultStore;
+import com.analyzer.extraction.DocumentSource;
+import com.analyzer.extraction.TextExtractor;
+import com.analyzer.extraction.TextExtractorRegistry;
+import com.analyzer.model.CorpusStatistics;
 import com.analyzer.model.DocumentAnalysis;
-import org.apache.pdfbox.Loader;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.text.PDFTextStripper;
-import org.apache.poi.xwpf.usermodel.XWPFDocument;
-import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
+import com.analyzer.model.DocumentAnalysisCodec;
+import com.analyzer.model.DocumentEntity;
+import com.analyzer.model.SimilarDocument;
+import com.analyzer.revision.RevisionAnalyzer;
+import com.analyzer.revision.UnknownParentException;
+import com.analyzer.scheduling.TenantScheduler;
+import com.analyzer.scheduling.TenantSlot;
+import com.analyzer.similarity.SimilarityService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class DocumentAnalysisService {
 
-    // In-memory storage for demo - replace with database in production
-    private final Map<String, DocumentAnalysis> analysisStorage = new ConcurrentHashMap<>();
+    private static final Logger logger = LoggerFactory.getLogger(DocumentAnalysisService.class);
+
+    private static final long RESULT_POLL_INTERVAL_MS = 100;
+
+    // In-memory by default; file-backed and shared between nodes in scale-out mode
+    private final AnalysisResultStore analysisStorage;
 
     private final AiAnalysisService aiAnalysisService;
+    private final RevisionAnalyzer revisionAnalyzer;
+    private final CorpusStatisticsService corpusStatistics;
+    private final SimilarityService similarity;
+    private final UploadAdmission uploadAdmission;
+    private final TextExtractorRegistry textExtractors;
+    private final TenantScheduler scheduler;
+    private final AnalysisJobQueue jobQueue;
+    private final long resultWaitMs;
 
-    public DocumentAnalysisService(AiAnalysisService aiAnalysisService) {
+    public DocumentAnalysisService(AiAnalysisService aiAnalysisService, RevisionAnalyzer revisionAnalyzer,
+            AnalysisResultStore analysisStorage, CorpusStatisticsService corpusStatistics,
+            SimilarityService similarity, UploadAdmission uploadAdmission, TextExtractorRegistry textExtractors,
+            TenantScheduler scheduler,
+            @Autowired(required = false) AnalysisJobQueue jobQueue,
+            @Value("${analyzer.cluster.result-wait-ms:30000}") long resultWaitMs) {
         this.aiAnalysisService = aiAnalysisService;
+        this.revisionAnalyzer = revisionAnalyzer;
+        this.analysisStorage = analysisStorage;
+        this.corpusStatistics = corpusStatistics;
+        this.similarity = similarity;
+        this.uploadAdmission = uploadAdmission;
+        this.textExtractors = textExtractors;
+        this.scheduler = scheduler;
+        this.jobQueue = jobQueue;
+        this.resultWaitMs = resultWaitMs;
     }
 
-    public DocumentAnalysis analyzeDocument(MultipartFile file) throws IOException {
-        String documentId = UUID.randomUUID().toString();
-        String filename = file.getOriginalFilename();
-        String fileType = getFileType(filename);
-        long fileSize = file.getSize();
+    /**
+     * Analyze an upload once the tenant's turn comes; the scheduler slot is
+     * held for the whole analysis (or, in scale-out mode, the wait for it).
+     * Memory budget is reserved before the upload is loaded, in scale-out
+     * mode until the job is queued.
+     * With a parentId the upload is analyzed as a revision of that document.
+     */
+    public DocumentAnalysis analyzeDocument(MultipartFile file, String parentId, String tenant,
+            TenantScheduler.Lane lane) throws IOException {
+        try (TenantSlot slot = scheduler.acquire(tenant, lane, file.getSize())) {
+            String documentId = UUID.randomUUID().toString();
+            String filename = file.getOriginalFilename();
+            TextExtractor extractor;
+            try (InputStream in = file.getInputStream()) {
+                extractor = textExtractors.select(filename, in);
+            }
+            DocumentAnalysis parent = parentId != null ? requireParent(parentId) : null;
 
-        DocumentAnalysis analysis = new DocumentAnalysis(documentId, filename, fileType, fileSize);
+            // The upload is still spooled by the servlet container; only load it once budget is reserved
+            try (MemoryReservation reservation = reserve(extractor.getFormat(), file)) {
+                if (jobQueue == null) {
+                    return storeAnalysis(analyze(documentId, filename, extractor,
+                            DocumentSource.of(file.getBytes()), parent, reservation));
+                }
 
-        // Extract text based on file type
-        String extractedText = extractText(file, fileType);
-        analysis.setExtractedText(extractedText);
+                // Scale-out mode: mislabelled files and unknown parents were rejected above; hand the upload
+                // to a worker. Its bytes stay on this node's heap until the job is written to the queue.
+                jobQueue.submit(new AnalysisJob(documentId, filename, file.getBytes(), parentId));
+            }
+            logger.debug("Queued document {} for analysis", documentId);
+            return receive(awaitAnalysis(documentId));
+        }
+    }
+
+    /**
+     * Extract, analyze and store a document. Runs on worker nodes in
+     * scale-out mode. The document's estimated memory cost is held against
+     * the admission budget until its analysis is stored. A revision
+     * (non-null parentId) only analyzes the chunks that differ from the
+     * parent.
+     */
+    public DocumentAnalysis analyzeDocument(String documentId, String filename, byte[] content, String parentId)
+            throws IOException {
+        DocumentAnalysis stored = analysisStorage.get(documentId);
+        if (stored != null) {
+            // A job taken over from an expired worker that had already stored its result
+            logger.debug("Document {} is already analyzed", documentId);
+            return stored;
+        }
+        DocumentAnalysis parent = parentId != null ? requireParent(parentId) : null;
+        DocumentSource source = DocumentSource.of(content);
+        TextExtractor extractor = textExtractors.select(filename, source);
+
+        try (MemoryReservation reservation = uploadAdmission.reserve(extractor.getFormat(), content)) {
+            return storeAnalysis(analyze(documentId, filename, extractor, source, parent, reservation));
+        }
+    }
+
+    /**
+     * Extract and analyze a document without storing it
+     */
+    private DocumentAnalysis analyze(String documentId, String filename, TextExtractor extractor,
+            DocumentSource source, DocumentAnalysis parent, MemoryReservation reservation) throws IOException {
+        String fileType = extractor.getFormat();
+        String extractedText = uploadAdmission.extract(reservation,
+                () -> textExtractors.extractText(extractor, source));
+
+        if (parent != null) {
+            return buildRevision(documentId, filename, fileType, source.size(), extractedText,
+                    revisionAnalyzer.analyze(extractedText, parent));
+        }
 
         // Perform AI analysis on the extracted text
         AiAnalysisService.ComprehensiveAnalysisResult aiResult = aiAnalysisService.analyzeDocument(extractedText);
 
-        // Set AI analysis results
-        analysis.setSentiment(aiResult.getSentiment().getSentiment());
-        analysis.setSentimentScore(aiResult.getSentiment().getPositiveScore());
-        analysis.setKeyPhrases(aiResult.getKeyPhrases());
+        return buildAnalysis(documentId, filename, fileType, source.size(), extractedText, aiResult);
+    }
 
-        // Convert entities to Map format for JSON serialization
-        List<Map<String, Object>> entityMaps = aiResult.getEntities().stream()
-                .map(entity -> {
-                    Map<String, Object> entityMap = new HashMap<>();
-                    entityMap.put("text", entity.getText());
-                    entityMap.put("type", entity.getType());
-                    entityMap.put("confidence", entity.getConfidence());
-                    return entityMap;
-                })
-                .toList();
-        analysis.setEntities(entityMaps);
+    /**
+     * Non-blocking variant for the reactive API. The upload has already been
+     * streamed to a file; extraction and mock analysis run on the given
+     * bounded executor and AWS Comprehend is called through its async client,
+     * so no thread waits on I/O, including while queued behind other tenants.
+     */
+    public CompletableFuture<DocumentAnalysis> analyzeDocumentAsync(String filename, Path upload, String parentId,
+            String tenant, TenantScheduler.Lane lane, Executor extractionExecutor) {
+        return scheduler.acquireAsync(tenant, lane, upload.toFile().length()).thenCompose(slot -> {
+            try {
+                return analyzeUploadAsync(filename, upload, parentId, extractionExecutor)
+                        .whenComplete((analysis, error) -> slot.close());
+            } catch (RuntimeException e) {
+                slot.close();
+                throw e;
+            }
+        });
+    }
+
+    private CompletableFuture<DocumentAnalysis> analyzeUploadAsync(String filename, Path upload, String parentId,
+            Executor extractionExecutor) {
+        String documentId = UUID.randomUUID().toString();
+        DocumentSource source = DocumentSource.of(upload);
+
+        if (jobQueue != null) {
+            // Scale-out mode: hand the bytes to a worker and poll for its result without blocking. As on the
+            // standalone path, unknown parents and unsupported content are rejected and budget is reserved
+            // before the upload is loaded; the reservation is released once the job is queued.
+            return CompletableFuture.runAsync(() -> {
+                try {
+                    if (parentId != null) {
+                        requireParent(parentId);
+                    }
+                    TextExtractor extractor = textExtractors.select(filename, source);
+                    try (MemoryReservation reservation = reserve(extractor.getFormat(), upload)) {
+                        jobQueue.submit(new AnalysisJob(documentId, filename, Files.readAllBytes(upload),
+                                parentId));
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, extractionExecutor).thenCompose(ignored -> awaitAnalysisAsync(documentId,
+                    System.currentTimeMillis() + resultWaitMs, 0))
+                    .thenApplyAsync(this::receive, extractionExecutor);
+        }
+
+        // The parent is looked up first; the result store may be file-backed
+        CompletableFuture<DocumentAnalysis> parentLookup = parentId != null
+                ? CompletableFuture.supplyAsync(() -> requireParent(parentId), extractionExecutor)
+                : CompletableFuture.completedFuture(null);
+        return parentLookup.thenCompose(parent -> CompletableFuture.supplyAsync(() -> {
+            try {
+                return textExtractors.select(filename, source);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, extractionExecutor).thenCompose(extractor -> {
+            String fileType = extractor.getFormat();
+            MemoryReservation reservation = reserve(fileType, upload);
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return uploadAdmission.extract(reservation, () -> textExtractors.extractText(extractor, source));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, extractionExecutor).thenCompose(extractedText -> parent != null
+                    ? revisionAnalyzer.analyzeAsync(extractedText, parent, extractionExecutor)
+                            .thenApply(revision -> storeAnalysis(buildRevision(documentId, filename, fileType,
+                                    upload.toFile().length(), extractedText, revision)))
+                    : aiAnalysisService.analyzeDocumentAsync(extractedText, extractionExecutor)
+                            .thenApply(aiResult -> storeAnalysis(buildAnalysis(documentId, filename, fileType,
+                                    upload.toFile().length(), extractedText, aiResult))))
+                    .whenComplete((analysis, error) -> reservation.close());
+        }));
+    }
 
+    private DocumentAnalysis requireParent(String parentId) {
+        DocumentAnalysis parent = analysisStorage.get(parentId);
+        if (parent == null) {
+            throw new UnknownParentException(parentId);
+        }
+        return parent;
+    }
+
+    /**
+     * Reserve budget for a spooled upload, streaming it for the cost estimate
+     * instead of loading it
+     */
+    private MemoryReservation reserve(String fileType, Path upload) {
+        try (InputStream in = Files.newInputStream(upload)) {
+            return uploadAdmission.reserve(fileType, Files.size(upload), in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reserve budget for a multipart upload from its size and a stream over
+     * its spooled content, before its bytes are loaded
+     */
+    private MemoryReservation reserve(String fileType, MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return uploadAdmission.reserve(fileType, file.getSize(), in);
+        }
+    }
+
+    /**
+     * Run a bundled sample through the same admission, extraction and
+     * analysis path as an upload, then again as a revision of itself so
+     * that chunking and per-chunk analysis are warmed too, and through the
+     * storage codec; nothing is stored
+     */
+    public void warmUp(String filename, byte[] content) throws IOException {
+        DocumentSource source = DocumentSource.of(content);
+        TextExtractor extractor = textExtractors.select(filename, source);
+        try (MemoryReservation reservation = uploadAdmission.reserve(extractor.getFormat(), content)) {
+            DocumentAnalysis analysis = analyze("warmup", filename, extractor, source, null, reservation);
+            DocumentAnalysis revision = analyze("warmup-revision", filename, extractor, source, analysis,
+                    reservation);
+            DocumentAnalysisCodec.decode(DocumentAnalysisCodec.encode(revision));
+        }
+    }
+
+    private DocumentAnalysis buildRevision(String documentId, String filename, String fileType, long fileSize,
+            String extractedText, RevisionAnalyzer.RevisionAnalysis revision) {
+        DocumentAnalysis analysis = buildAnalysis(documentId, filename, fileType, fileSize, extractedText,
+                revision.getResult());
+        analysis.setChunks(revision.getChunks());
+        analysis.setRevision(revision.getDiff());
+        return analysis;
+    }
+
+    private DocumentAnalysis storeAnalysis(DocumentAnalysis analysis) {
         // Store analysis
-        analysisStorage.put(documentId, analysis);
+        analysisStorage.put(analysis);
+        corpusStatistics.record(analysis);
+        similarity.index(analysis);
 
         return analysis;
     }
 
-    public DocumentAnalysis getAnalysis(String documentId) {
-        return analysisStorage.get(documentId);
+    /**
+     * Scale-out mode: a result stored by a worker reaches this node; add it
+     * to this node's similarity index (which ignores documents it already
+     * holds). Corpus statistics pick it up from the result store.
+     */
+    private DocumentAnalysis receive(DocumentAnalysis analysis) {
+        similarity.index(analysis);
+        return analysis;
     }
 
-    public Map<String, DocumentAnalysis> getAllAnalyses() {
-        return new HashMap<>(analysisStorage);
-    }
-
-    private String extractText(MultipartFile file, String fileType) throws IOException {
-        switch (fileType.toLowerCase()) {
-            case "pdf":
-                return extractTextFromPdf(file);
-            case "docx":
-                return extractTextFromDocx(file);
-            case "txt":
-                return new String(file.getBytes());
-            default:
-                throw new IllegalArgumentException("Unsupported file type: " + fileType);
+    private DocumentAnalysis buildAnalysis(String documentId, String filename, String fileType, long fileSize,
+            String extractedText, AiAnalysisService.ComprehensiveAnalysisResult aiResult) {
+        DocumentAnalysis analysis = new DocumentAnalysis(documentId, filename, fileType, fileSize);
+        analysis.setExtractedText(extractedText);
+
+        // Set AI analysis results
+        analysis.setSentiment(aiResult.getSentiment().getSentiment());
+        analysis.setSentimentScore(aiResult.getSentiment().getPositiveScore());
+        analysis.setKeyPhrases(aiResult.getKeyPhrases());
+        if (aiResult.getSummary() != null) {
+            analysis.setSummary(aiResult.getSummary());
         }
+
+        analysis.setEntities(aiResult.getEntities().stream()
+                .map(entity -> new DocumentEntity(entity.getText(), entity.getType(), entity.getConfidence()))
+                .toList());
+        return analysis;
     }
 
-    private String extractTextFromPdf(MultipartFile file) throws IOException {
-        try (PDDocument document = Loader.loadPDF(file.getBytes())) {
-            PDFTextStripper stripper = new PDFTextStripper();
-            return stripper.getText(document);
+    private DocumentAnalysis awaitAnalysis(String documentId) {
+        long deadline = System.currentTimeMillis() + resultWaitMs;
+        int missedPolls = 0;
+        while (System.currentTimeMillis() < deadline) {
+            DocumentAnalysis analysis = analysisStorage.get(documentId);
+            if (analysis != null) {
+                return analysis;
+            }
+            // A job can be briefly invisible while it moves between partitions,
+            // so only give up after it is missing on two consecutive polls
+            if (jobQueue.isPending(documentId)) {
+                missedPolls = 0;
+            } else if (++missedPolls > 1) {
+                throw new IllegalStateException("Analysis failed on worker for document " + documentId);
+            }
+            try {
+                Thread.sleep(RESULT_POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
         }
+        throw new AnalysisPendingException(documentId);
     }
 
-    private String extractTextFromDocx(MultipartFile file) throws IOException {
-        try (XWPFDocument document = new XWPFDocument(file.getInputStream());
-                XWPFWordExtractor extractor = new XWPFWordExtractor(document)) {
-            return extractor.getText();
+    private CompletableFuture<DocumentAnalysis> awaitAnalysisAsync(String documentId, long deadline,
+            int missedPolls) {
+        DocumentAnalysis analysis = analysisStorage.get(documentId);
+        if (analysis != null) {
+            return CompletableFuture.completedFuture(analysis);
+        }
+        int missed = jobQueue.isPending(documentId) ? 0 : missedPolls + 1;
+        if (missed > 1) {
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("Analysis failed on worker for document " + documentId));
         }
+        if (System.currentTimeMillis() >= deadline) {
+            return CompletableFuture.failedFuture(new AnalysisPendingException(documentId));
+        }
+        Executor delay = CompletableFuture.delayedExecutor(RESULT_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        return CompletableFuture.runAsync(() -> {
+        }, delay).thenCompose(ignored -> awaitAnalysisAsync(documentId, deadline, missed));
     }
 
-    private String getFileType(String filename) {
-        if (filename == null || !filename.contains(".")) {
-            return "unknown";
-        }
-        return filename.substring(filename.lastIndexOf(".") + 1).toLowerCase();
+    public boolean isPending(String documentId) {
+        return jobQueue != null && jobQueue.isPending(documentId);
     }
 
+    public DocumentAnalysis getAnalysis(String documentId) {
+        DocumentAnalysis analysis = analysisStorage.get(documentId);
+        // Results that were still pending at upload are received when the client collects them
+        return analysis != null && jobQueue != null ? receive(analysis) : analysis;
+    }
+
+    public Map<String, DocumentAnalysis> getAllAnalyses() {
+        return analysisStorage.getAll();
+    }
+
+    public CorpusStatistics getStatistics() {
+        return corpusStatistics.snapshot();
+    }
+
+    /**
+     * @return the documents most similar to the given one, or null if it is unknown
+     */
+    public List<SimilarDocument> findSimilar(String documentId, int k) {
+        return similarity.findSimilar(documentId, k);
+    }
+
+    /**
+     * Cheap pre-check on the extension, before the upload is read
+     */
     public boolean isValidFileType(String filename) {
-        String fileType = getFileType(filename);
-        return fileType.matches("pdf|docx|txt");
+        return textExtractors.isSupported(filename);
+    }
+
+    public Set<String> getSupportedExtensions() {
+        return textExtractors.getSupportedExtensions();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,74 @@
+package com.analyzer.service;
+
+/**
+ * Set of document ids kept as 64-bit hashes in one open-addressing primitive
+ * array, so that remembering a million counted documents costs 16 MB rather
+ * than a million string entries. Two ids sharing a hash (about one chance in
+ * 10^7 at that size) would count as one. Not thread-safe.
+ */
+class DocumentIdSet {
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    // Zero marks an empty cell; an id hashing to zero is stored as this instead
+    private static final long ZERO_HASH = 0x9e3779b97f4a7c15L;
+
+    private long[] hashes = new long[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * @return whether the id was not in the set yet
+     */
+    boolean add(String documentId) {
+        if ((size + 1) * 2 > hashes.length) {
+            resize();
+        }
+        if (insert(hashes, hash(documentId))) {
+            size++;
+            return true;
+        }
+        return false;
+    }
+
+    boolean contains(String documentId) {
+        long hash = hash(documentId);
+        int mask = hashes.length - 1;
+        for (int i = (int) (hash ^ (hash >>> 32)) & mask; hashes[i] != 0; i = (i + 1) & mask) {
+            if (hashes[i] == hash) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void resize() {
+        long[] grown = new long[hashes.length * 2];
+        for (long hash : hashes) {
+            if (hash != 0) {
+                insert(grown, hash);
+            }
+        }
+        hashes = grown;
+    }
+
+    private static boolean insert(long[] hashes, long hash) {
+        int mask = hashes.length - 1;
+        for (int i = (int) (hash ^ (hash >>> 32)) & mask; ; i = (i + 1) & mask) {
+            if (hashes[i] == hash) {
+                return false;
+            }
+            if (hashes[i] == 0) {
+                hashes[i] = hash;
+                return true;
+            }
+        }
+    }
+
+    // FNV-1a over the UTF-16 code units
+    private static long hash(String documentId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < documentId.length(); i++) {
+            hash = (hash ^ documentId.charAt(i)) * 0x100000001b3L;
+        }
+        return hash != 0 ? hash : ZERO_HASH;
+    }
+}
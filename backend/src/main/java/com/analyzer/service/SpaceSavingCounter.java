@@ -0,0 +1,76 @@
+package com.analyzer.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Space-saving heavy-hitter sketch (Metwally et al.) over a fixed number of
+ * counters. Any term whose true count exceeds total / capacity is
+ * guaranteed to be tracked, and each reported count overestimates the true
+ * count by at most its error.
+ *
+ * Counters are kept ordered by count, so an update costs O(log capacity)
+ * regardless of how many distinct terms have been seen. Not thread-safe.
+ */
+class SpaceSavingCounter {
+
+    private final int capacity;
+    private final Map<String, Counter> counters = new HashMap<>();
+    private final TreeSet<Counter> byCount = new TreeSet<>((a, b) -> a.count != b.count
+            ? Long.compare(a.count, b.count)
+            : Long.compare(a.sequence, b.sequence));
+    private long nextSequence;
+
+    SpaceSavingCounter(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    void add(String term) {
+        Counter counter = counters.get(term);
+        if (counter != null) {
+            byCount.remove(counter);
+            counter.count++;
+            byCount.add(counter);
+            return;
+        }
+
+        if (counters.size() < capacity) {
+            counter = new Counter(term, 1, 0, nextSequence++);
+        } else {
+            // Evict the smallest counter; the newcomer inherits its count as error
+            Counter smallest = byCount.pollFirst();
+            counters.remove(smallest.term);
+            counter = new Counter(term, smallest.count + 1, smallest.count, nextSequence++);
+        }
+        counters.put(term, counter);
+        byCount.add(counter);
+    }
+
+    /**
+     * The k terms with the highest guaranteed count (count - error), largest
+     * first. Recently admitted terms inherit a large error from the counter
+     * they evicted, so ranking by the raw count would surface long-tail noise.
+     */
+    List<Counter> top(int k) {
+        List<Counter> ranked = new ArrayList<>(counters.values());
+        ranked.sort((a, b) -> Long.compare(b.count - b.error, a.count - a.error));
+        return ranked.size() > k ? new ArrayList<>(ranked.subList(0, k)) : ranked;
+    }
+
+    static class Counter {
+        final String term;
+        long count;
+        final long error;
+        private final long sequence;
+
+        Counter(String term, long count, long error, long sequence) {
+            this.term = term;
+            this.count = count;
+            this.error = error;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.analyzer.service;
+
+import com.analyzer.similarity.SimilarityService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Optional warm-up and readiness reporting.
+ *
+ * With analyzer.warmup.enabled the bundled sample PDF, DOCX and TXT are run
+ * through the upload path (admission, extraction, analysis) and then again
+ * as revisions of themselves (chunking, per-chunk analysis) before the
+ * application reports ready. Application runners complete before Spring
+ * Boot switches readiness to ACCEPTING_TRAFFIC, so a pod is only routed
+ * traffic once PDFBox, POI and the analysis paths are loaded and compiled.
+ * Results are never stored.
+ *
+ * With analyzer.warmup.exit-after-warmup the application exits after
+ * warm-up, which makes a full-coverage training run for an AppCDS archive.
+ */
+@Service
+public class StartupService implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupService.class);
+
+    private static final List<String> SAMPLES = List.of("warmup/sample.pdf", "warmup/sample.docx",
+            "warmup/sample.txt");
+
+    public enum WarmupStatus {
+        DISABLED, RUNNING, DONE, FAILED
+    }
+
+    private final DocumentAnalysisService documentAnalysisService;
+    private final AwsComprehendService awsComprehendService;
+    private final SimilarityService similarity;
+    private final ApplicationAvailability availability;
+    private final ApplicationContext context;
+    private final boolean warmupEnabled;
+    private final int iterations;
+    private final boolean exitAfterWarmup;
+
+    private volatile WarmupStatus warmupStatus = WarmupStatus.DISABLED;
+
+    public StartupService(DocumentAnalysisService documentAnalysisService,
+            @Autowired(required = false) AwsComprehendService awsComprehendService, SimilarityService similarity,
+            ApplicationAvailability availability, ApplicationContext context,
+            @Value("${analyzer.warmup.enabled:false}") boolean warmupEnabled,
+            @Value("${analyzer.warmup.iterations:10}") int iterations,
+            @Value("${analyzer.warmup.exit-after-warmup:false}") boolean exitAfterWarmup) {
+        this.documentAnalysisService = documentAnalysisService;
+        this.awsComprehendService = awsComprehendService;
+        this.similarity = similarity;
+        this.availability = availability;
+        this.context = context;
+        this.warmupEnabled = warmupEnabled;
+        this.iterations = Math.max(1, iterations);
+        this.exitAfterWarmup = exitAfterWarmup;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (warmupEnabled) {
+            warmUp();
+        }
+        if (exitAfterWarmup) {
+            logger.info("Exiting after warm-up (analyzer.warmup.exit-after-warmup=true)");
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    private void warmUp() {
+        warmupStatus = WarmupStatus.RUNNING;
+        long start = System.currentTimeMillis();
+        try {
+            Map<String, byte[]> samples = new HashMap<>();
+            for (String sample : SAMPLES) {
+                try (InputStream in = new ClassPathResource(sample).getInputStream()) {
+                    samples.put(sample.substring(sample.lastIndexOf('/') + 1), in.readAllBytes());
+                }
+            }
+            for (int i = 0; i < iterations; i++) {
+                for (Map.Entry<String, byte[]> sample : samples.entrySet()) {
+                    documentAnalysisService.warmUp(sample.getKey(), sample.getValue());
+                }
+            }
+            warmupStatus = WarmupStatus.DONE;
+            logger.info("Warm-up finished: {} iteration(s) over {} samples in {} ms", iterations, samples.size(),
+                    System.currentTimeMillis() - start);
+        } catch (IOException | RuntimeException e) {
+            // A failed warm-up only costs latency; still let the pod become ready
+            warmupStatus = WarmupStatus.FAILED;
+            logger.warn("Warm-up failed after {} ms: {}", System.currentTimeMillis() - start, e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return availability.getReadinessState() == ReadinessState.ACCEPTING_TRAFFIC;
+    }
+
+    /**
+     * Readiness with the state of each startup component. AWS Comprehend is
+     * reported but does not gate readiness, since the mock implementation
+     * serves requests until the client is available. Neither does the
+     * similarity index backfill: search works over what is indexed so far.
+     */
+    public Map<String, String> getReadiness() {
+        Map<String, String> readiness = new HashMap<>();
+        readiness.put("status", isReady() ? "READY" : "STARTING");
+        readiness.put("warmup", warmupStatus.name());
+        readiness.put("comprehend", awsComprehendService != null ? awsComprehendService.getStatus().name() : "DISABLED");
+        readiness.put("similarityIndex", similarity.getBackfillStatus().name());
+        return readiness;
+    }
+}
@@ -0,0 +1,315 @@
+package com.analyzer.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Extractive summarizer based on TextRank over sentence nodes.
+ *
+ * Sentences are linked through a sparse similarity graph built from an
+ * inverted index of their terms, so only sentences that share a term are
+ * ever compared. Each sentence keeps at most maxDegree neighbours and very
+ * common terms are ignored, which keeps graph construction near-linear.
+ * Documents with more than maxSentences candidate sentences are sampled
+ * at an even stride before ranking.
+ */
+@Service
+public class TextRankSummarizer {
+
+    private static final double DAMPING = 0.85;
+    private static final int ITERATIONS = 30;
+    private static final double CONVERGENCE = 1e-4;
+
+    // Sentences without punctuation (tables, letterheads) are cut at this length
+    private static final int MAX_SENTENCE_TOKENS = 60;
+    // Sentences with fewer content terms than this are not summary candidates
+    private static final int MIN_SENTENCE_TERMS = 4;
+    // Terms appearing in more than this share of sentences carry no signal
+    private static final double MAX_TERM_DOCUMENT_FREQUENCY = 0.25;
+    private static final int POSTINGS_PER_EDGE = 10;
+
+    private static final Set<String> STOP_WORDS = Set.of("the", "and", "or", "but", "in", "on", "at", "to", "for",
+            "of", "with", "by", "is", "are", "was", "were", "be", "been", "have", "has", "had", "will", "would",
+            "could", "should", "this", "that", "these", "those", "a", "an", "it", "its", "as", "from", "not",
+            "we", "you", "they", "he", "she", "our", "their", "which", "who", "can", "may", "all", "any");
+
+    private final int summarySentences;
+    private final int maxDegree;
+    private final int maxSentences;
+
+    public TextRankSummarizer(@Value("${analyzer.summary.sentences:3}") int summarySentences,
+            @Value("${analyzer.summary.max-degree:20}") int maxDegree,
+            @Value("${analyzer.summary.max-sentences:5000}") int maxSentences) {
+        this.summarySentences = Math.max(1, summarySentences);
+        this.maxDegree = Math.max(1, maxDegree);
+        this.maxSentences = Math.max(1, maxSentences);
+    }
+
+    /**
+     * Summarize a whitespace-separated token stream. Returns null when the
+     * text has no sentence worth extracting.
+     */
+    public String summarize(String[] tokens) {
+        List<Sentence> sentences = candidateSentences(tokens);
+        if (sentences.isEmpty()) {
+            return null;
+        }
+        if (sentences.size() <= summarySentences) {
+            return join(tokens, sentences);
+        }
+
+        int[][] termIds = indexTerms(sentences);
+        double[] scores = rank(buildGraph(termIds));
+
+        Integer[] order = new Integer[sentences.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(scores[b], scores[a]));
+
+        // Present the selected sentences in document order
+        List<Sentence> selected = new ArrayList<>();
+        for (int i = 0; i < summarySentences; i++) {
+            selected.add(sentences.get(order[i]));
+        }
+        selected.sort((a, b) -> Integer.compare(a.start, b.start));
+        return join(tokens, selected);
+    }
+
+    /**
+     * Find sentence boundaries with a cheap punctuation scan, then normalize
+     * terms only for the (sampled) spans that will actually be ranked.
+     */
+    private List<Sentence> candidateSentences(String[] tokens) {
+        int[] ends = new int[Math.max(16, tokens.length / 16)];
+        int count = 0;
+        int start = 0;
+        for (int i = 0; i < tokens.length; i++) {
+            if (endsSentence(tokens[i]) || i - start + 1 >= MAX_SENTENCE_TOKENS || i == tokens.length - 1) {
+                if (count == ends.length) {
+                    ends = Arrays.copyOf(ends, count * 2);
+                }
+                ends[count++] = i + 1;
+                start = i + 1;
+            }
+        }
+
+        // Oversample so that dropping short spans still leaves enough candidates
+        int spans = Math.min(count, maxSentences * 2);
+        double stride = (double) count / spans;
+        List<Sentence> sentences = new ArrayList<>(spans);
+        List<String> terms = new ArrayList<>();
+        for (int k = 0; k < spans; k++) {
+            int index = (int) (k * stride);
+            int from = index == 0 ? 0 : ends[index - 1];
+            terms.clear();
+            for (int i = from; i < ends[index]; i++) {
+                String term = normalize(tokens[i]);
+                if (term.length() > 2 && !STOP_WORDS.contains(term)) {
+                    terms.add(term);
+                }
+            }
+            if (terms.size() >= MIN_SENTENCE_TERMS) {
+                sentences.add(new Sentence(from, ends[index], terms.toArray(new String[0])));
+            }
+        }
+
+        if (sentences.size() <= maxSentences) {
+            return sentences;
+        }
+        List<Sentence> sampled = new ArrayList<>(maxSentences);
+        double sampleStride = (double) sentences.size() / maxSentences;
+        for (int k = 0; k < maxSentences; k++) {
+            sampled.add(sentences.get((int) (k * sampleStride)));
+        }
+        return sampled;
+    }
+
+    /**
+     * Map each sentence to its distinct term ids, dropping terms too common
+     * to distinguish sentences.
+     */
+    private int[][] indexTerms(List<Sentence> sentences) {
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<Integer> documentFrequency = new ArrayList<>();
+        int[][] termIds = new int[sentences.size()][];
+
+        for (int s = 0; s < sentences.size(); s++) {
+            int[] ids = new int[sentences.get(s).terms.length];
+            for (int t = 0; t < ids.length; t++) {
+                ids[t] = dictionary.computeIfAbsent(sentences.get(s).terms[t], k -> {
+                    documentFrequency.add(0);
+                    return documentFrequency.size() - 1;
+                });
+            }
+            ids = Arrays.stream(ids).distinct().toArray();
+            for (int id : ids) {
+                documentFrequency.set(id, documentFrequency.get(id) + 1);
+            }
+            termIds[s] = ids;
+        }
+
+        // Bounding posting lists also bounds the work per sentence in buildGraph
+        int maxFrequency = Math.max(2, Math.min((int) (sentences.size() * MAX_TERM_DOCUMENT_FREQUENCY),
+                maxDegree * POSTINGS_PER_EDGE));
+        for (int s = 0; s < termIds.length; s++) {
+            termIds[s] = Arrays.stream(termIds[s])
+                    .filter(id -> documentFrequency.get(id) <= maxFrequency)
+                    .toArray();
+        }
+        return termIds;
+    }
+
+    /**
+     * Build a sparse graph with the TextRank overlap similarity
+     * |Si n Sj| / (log|Si| + log|Sj|), keeping only each node's strongest
+     * edges so memory stays at n * maxDegree.
+     */
+    private Edge[][] buildGraph(int[][] termIds) {
+        int n = termIds.length;
+        Map<Integer, List<Integer>> postings = new HashMap<>();
+        for (int s = 0; s < n; s++) {
+            for (int id : termIds[s]) {
+                postings.computeIfAbsent(id, k -> new ArrayList<>()).add(s);
+            }
+        }
+
+        Edge[][] graph = new Edge[n][];
+        // Shared-term counts for the current sentence, reset through the touched list
+        int[] overlap = new int[n];
+        int[] touched = new int[n];
+        PriorityQueue<Edge> strongest = new PriorityQueue<>((a, b) -> Double.compare(a.weight, b.weight));
+        for (int s = 0; s < n; s++) {
+            int touchedCount = 0;
+            for (int id : termIds[s]) {
+                for (int other : postings.get(id)) {
+                    if (other != s && overlap[other]++ == 0) {
+                        touched[touchedCount++] = other;
+                    }
+                }
+            }
+
+            strongest.clear();
+            for (int i = 0; i < touchedCount; i++) {
+                int other = touched[i];
+                double norm = Math.log(termIds[s].length + 1.0) + Math.log(termIds[other].length + 1.0);
+                double weight = overlap[other] / norm;
+                overlap[other] = 0;
+                if (strongest.size() == maxDegree) {
+                    if (weight <= strongest.peek().weight) {
+                        continue;
+                    }
+                    strongest.poll();
+                }
+                strongest.add(new Edge(other, weight));
+            }
+            graph[s] = strongest.toArray(new Edge[0]);
+        }
+        return graph;
+    }
+
+    private double[] rank(Edge[][] graph) {
+        int n = graph.length;
+        double[] outWeight = new double[n];
+        for (int s = 0; s < n; s++) {
+            for (Edge edge : graph[s]) {
+                outWeight[s] += edge.weight;
+            }
+        }
+
+        double[] scores = new double[n];
+        Arrays.fill(scores, 1.0 / n);
+        double[] next = new double[n];
+
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            Arrays.fill(next, (1 - DAMPING) / n);
+            for (int s = 0; s < n; s++) {
+                if (outWeight[s] == 0) {
+                    continue;
+                }
+                double share = DAMPING * scores[s] / outWeight[s];
+                for (Edge edge : graph[s]) {
+                    next[edge.target] += share * edge.weight;
+                }
+            }
+            double delta = 0;
+            for (int s = 0; s < n; s++) {
+                delta += Math.abs(next[s] - scores[s]);
+            }
+            double[] swap = scores;
+            scores = next;
+            next = swap;
+            if (delta < CONVERGENCE) {
+                break;
+            }
+        }
+        return scores;
+    }
+
+    private String join(String[] tokens, List<Sentence> sentences) {
+        StringBuilder summary = new StringBuilder();
+        for (Sentence sentence : sentences) {
+            for (int i = sentence.start; i < sentence.end; i++) {
+                if (summary.length() > 0) {
+                    summary.append(' ');
+                }
+                summary.append(tokens[i]);
+            }
+        }
+        return summary.toString();
+    }
+
+    private static boolean endsSentence(String token) {
+        for (int i = token.length() - 1; i >= 0; i--) {
+            char c = token.charAt(i);
+            if (c == '.' || c == '!' || c == '?') {
+                return true;
+            }
+            if (c != '"' && c != '\'' && c != ')' && c != ']') {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static String normalize(String token) {
+        StringBuilder term = new StringBuilder(token.length());
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (Character.isLetter(c)) {
+                term.append(Character.toLowerCase(c));
+            }
+        }
+        return term.toString();
+    }
+
+    private static class Sentence {
+        private final int start;
+        private final int end;
+        private final String[] terms;
+
+        Sentence(int start, int end, String[] terms) {
+            this.start = start;
+            this.end = end;
+            this.terms = terms;
+        }
+    }
+
+    private static class Edge {
+        private final int target;
+        private final double weight;
+
+        Edge(int target, double weight) {
+            this.target = target;
+            this.weight = weight;
+        }
+    }
+}
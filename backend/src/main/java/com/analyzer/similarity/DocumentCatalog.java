@@ -0,0 +1,139 @@
+package com.analyzer.similarity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Filename and file type of every indexed document, kept in a side file of
+ * the vector index in slot order, so that search results can be described
+ * without decoding the documents' stored analyses.
+ *
+ * Records are appended as (length, UTF-8) pairs, with length -1 for null;
+ * the heap only holds one offset per slot. A record missing after a crash
+ * is written as an empty one on the next append, so that records stay
+ * aligned with the index slots. Reads and writes go through a
+ * RandomAccessFile, which an interrupted request thread cannot close.
+ */
+class DocumentCatalog implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentCatalog.class);
+
+    private final RandomAccessFile file;
+    // offsets[slot] is where the slot's record starts; offsets[count] is the end of the file
+    private long[] offsets = new long[1 << 10];
+    private int count;
+
+    /**
+     * @param slots number of slots in the vector index; records past it
+     *              belong to vectors lost in a crash and are dropped
+     */
+    DocumentCatalog(Path path, int slots) throws IOException {
+        long end = 0;
+        if (Files.exists(path)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+                while (count < slots) {
+                    long length = skipString(in) + skipString(in);
+                    end += 2 * Integer.BYTES + length;
+                    append(end);
+                }
+            } catch (EOFException e) {
+                // A record cut short by a crash
+            }
+        }
+        this.file = new RandomAccessFile(path.toFile(), "rw");
+        file.setLength(offsets[count]);
+        if (count < slots) {
+            logger.info("Similarity catalog {} is missing {} documents; they are described from the result store",
+                    path, slots - count);
+        }
+    }
+
+    synchronized void put(int slot, String filename, String fileType) throws IOException {
+        while (count < slot) {
+            write(null, null);
+        }
+        if (count == slot) {
+            write(filename, fileType);
+        }
+    }
+
+    /**
+     * @return filename and file type, either possibly null, or null if the
+     *         slot has no record
+     */
+    synchronized String[] get(int slot) throws IOException {
+        if (slot >= count) {
+            return null;
+        }
+        byte[] record = new byte[(int) (offsets[slot + 1] - offsets[slot])];
+        file.seek(offsets[slot]);
+        file.readFully(record);
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        String filename = readString(buffer);
+        String fileType = readString(buffer);
+        return filename == null && fileType == null ? null : new String[] { filename, fileType };
+    }
+
+    private void write(String filename, String fileType) throws IOException {
+        byte[] name = filename != null ? filename.getBytes(StandardCharsets.UTF_8) : null;
+        byte[] type = fileType != null ? fileType.getBytes(StandardCharsets.UTF_8) : null;
+        ByteBuffer record = ByteBuffer.allocate(2 * Integer.BYTES + length(name) + length(type));
+        putString(record, name);
+        putString(record, type);
+        file.seek(offsets[count]);
+        file.write(record.array());
+        append(offsets[count] + record.capacity());
+    }
+
+    private void append(long end) {
+        if (count + 1 == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        offsets[++count] = end;
+    }
+
+    private static int length(byte[] value) {
+        return value != null ? value.length : 0;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        buffer.putInt(value != null ? value.length : -1);
+        if (value != null) {
+            buffer.put(value);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static int skipString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length > 0) {
+            in.skipNBytes(length);
+        }
+        return Math.max(0, length);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        file.close();
+    }
+}
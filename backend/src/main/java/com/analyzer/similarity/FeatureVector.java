@@ -0,0 +1,46 @@
+package com.analyzer.similarity;
+
+/**
+ * A document vector quantized to signed bytes. Cosine similarity of two
+ * vectors is their integer dot product times both inverse norms.
+ */
+final class FeatureVector {
+
+    private final byte[] values;
+    private final float inverseNorm;
+
+    FeatureVector(byte[] values, float inverseNorm) {
+        this.values = values;
+        this.inverseNorm = inverseNorm;
+    }
+
+    /**
+     * Scale so that the largest component maps to 127; a document without
+     * features gets an all-zero vector that matches nothing
+     */
+    static FeatureVector quantize(double[] vector) {
+        double maxAbs = 0;
+        for (double value : vector) {
+            maxAbs = Math.max(maxAbs, Math.abs(value));
+        }
+        byte[] values = new byte[vector.length];
+        if (maxAbs == 0) {
+            return new FeatureVector(values, 0f);
+        }
+        long squares = 0;
+        for (int i = 0; i < vector.length; i++) {
+            int q = (int) Math.round(vector[i] * 127 / maxAbs);
+            values[i] = (byte) q;
+            squares += (long) q * q;
+        }
+        return new FeatureVector(values, (float) (1.0 / Math.sqrt(squares)));
+    }
+
+    byte[] getValues() {
+        return values;
+    }
+
+    float getInverseNorm() {
+        return inverseNorm;
+    }
+}
@@ -0,0 +1,186 @@
+package com.analyzer.similarity;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Turns a document's text and key phrases into a fixed-width, L2-normalized
+ * TF-IDF vector using signed feature hashing, quantized to one byte per
+ * dimension.
+ *
+ * Document frequencies are counted per hash bucket in a memory-mapped table
+ * (df.bin), so IDF needs no vocabulary on the heap and survives restarts.
+ * IDF is taken at the time a document is indexed; documents indexed while
+ * the corpus was small are weighted against the corpus as it was then.
+ */
+class FeatureVectorizer implements AutoCloseable {
+
+    private static final int BUCKET_BITS = 20;
+    private static final int BUCKETS = 1 << BUCKET_BITS;
+    // Document count, then one int per bucket
+    private static final int DF_HEADER = Long.BYTES;
+
+    // Key phrases are already filtered and ranked by the analyzer, so they count more than single terms
+    private static final double KEY_PHRASE_WEIGHT = 2.0;
+    private static final String KEY_PHRASE_PREFIX = "p:";
+
+    private static final Set<String> STOP_WORDS = Set.of("the", "and", "or", "but", "in", "on", "at", "to", "for",
+            "of", "with", "by", "is", "are", "was", "were", "be", "been", "have", "has", "had", "will", "would",
+            "could", "should", "this", "that", "these", "those", "a", "an", "it", "its", "as", "from", "not",
+            "we", "you", "they", "he", "she", "our", "their", "which", "who", "can", "may", "all", "any");
+
+    private final int dimensions;
+    private final FileChannel channel;
+    private final MappedByteBuffer frequencies;
+
+    FeatureVectorizer(Path dfFile, int dimensions) throws IOException {
+        this.dimensions = dimensions;
+        this.channel = FileChannel.open(dfFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.frequencies = channel.map(FileChannel.MapMode.READ_WRITE, 0, DF_HEADER + (long) BUCKETS * Integer.BYTES);
+    }
+
+    /**
+     * Count and hash the document's features. This is the expensive part of
+     * vectorizing and touches no shared state.
+     */
+    Features extract(String text, List<String> keyPhrases) {
+        Map<String, Integer> termCounts = new HashMap<>();
+        countTerms(text, termCounts);
+        if (keyPhrases != null) {
+            for (String phrase : keyPhrases) {
+                String feature = phrase.trim().toLowerCase(Locale.ROOT);
+                if (!feature.isEmpty()) {
+                    termCounts.merge(KEY_PHRASE_PREFIX + feature, 1, Integer::sum);
+                }
+            }
+        }
+
+        Features features = new Features(termCounts.size());
+        int n = 0;
+        for (Map.Entry<String, Integer> entry : termCounts.entrySet()) {
+            double weight = 1.0 + Math.log(entry.getValue());
+            if (entry.getKey().startsWith(KEY_PHRASE_PREFIX)) {
+                weight *= KEY_PHRASE_WEIGHT;
+            }
+            features.hashes[n] = hash(entry.getKey());
+            features.weights[n++] = weight;
+        }
+        return features;
+    }
+
+    /**
+     * Apply IDF and hash the features into a vector, adding them to the
+     * document frequencies first if the document is being indexed
+     */
+    synchronized FeatureVector vectorize(Features features, boolean countDocument) {
+        if (countDocument) {
+            frequencies.putLong(0, frequencies.getLong(0) + 1);
+            for (long hash : features.hashes) {
+                int offset = dfOffset(hash);
+                frequencies.putInt(offset, frequencies.getInt(offset) + 1);
+            }
+        }
+
+        long documents = Math.max(1, frequencies.getLong(0));
+        double[] vector = new double[dimensions];
+        for (int i = 0; i < features.hashes.length; i++) {
+            long hash = features.hashes[i];
+            int df = frequencies.getInt(dfOffset(hash));
+            double weight = features.weights[i] * (Math.log((documents + 1.0) / (df + 1.0)) + 1.0);
+            // Low bits pick the dimension, the top bit the sign, so collisions cancel out on average
+            int dimension = (int) Long.remainderUnsigned(hash, dimensions);
+            vector[dimension] += hash < 0 ? -weight : weight;
+        }
+        return FeatureVector.quantize(vector);
+    }
+
+    /**
+     * Lower-cased letter runs of more than two characters that are not stop
+     * words, as in the summarizer
+     */
+    private static void countTerms(String text, Map<String, Integer> termCounts) {
+        if (text == null) {
+            return;
+        }
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetter(c)) {
+                term.append(Character.toLowerCase(c));
+            } else if (term.length() > 0) {
+                if (term.length() > 2) {
+                    String word = term.toString();
+                    if (!STOP_WORDS.contains(word)) {
+                        termCounts.merge(word, 1, Integer::sum);
+                    }
+                }
+                term.setLength(0);
+            }
+        }
+    }
+
+    private static int dfOffset(long hash) {
+        return DF_HEADER + (int) ((hash >>> 17) & (BUCKETS - 1)) * Integer.BYTES;
+    }
+
+    /**
+     * 64-bit FNV-1a followed by a final avalanche so that dimension, sign
+     * and DF bucket bits are independent
+     */
+    private static long hash(String feature) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < feature.length(); i++) {
+            h ^= feature.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    long getDocumentCount() {
+        return frequencies.getLong(0);
+    }
+
+    /**
+     * Forget all document frequencies, for when the index is rebuilt
+     */
+    synchronized void reset() {
+        for (int offset = 0; offset < frequencies.capacity(); offset += Long.BYTES) {
+            frequencies.putLong(offset, 0);
+        }
+    }
+
+    void flush() {
+        frequencies.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    /**
+     * Hashed features of one document with their term-frequency weights
+     */
+    static class Features {
+        private final long[] hashes;
+        private final double[] weights;
+
+        Features(int size) {
+            this.hashes = new long[size];
+            this.weights = new double[size];
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.analyzer.similarity;
+
+import com.analyzer.cluster.AnalysisResultStore;
+import com.analyzer.model.DocumentAnalysis;
+import com.analyzer.model.SimilarDocument;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * "More like this" search over analyzed documents.
+ *
+ * Every stored analysis is vectorized from its extracted text and key
+ * phrases and appended to a memory-mapped {@link VectorIndex}; a query is a
+ * brute-force top-K cosine scan of that index. The index belongs to this
+ * node: documents are added as this node stores or receives them and, in a
+ * background scan after startup, for every stored analysis the index does
+ * not hold yet. Until that scan is done, search covers the documents
+ * indexed so far and adds a missing query document on demand.
+ */
+@Service
+public class SimilarityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimilarityService.class);
+
+    private static final String VECTORS_FILE = "vectors.bin";
+    private static final String FREQUENCIES_FILE = "df.bin";
+    private static final String CATALOG_FILE = "documents.bin";
+
+    public enum BackfillStatus {
+        RUNNING, DONE, FAILED
+    }
+
+    private final AnalysisResultStore analysisStorage;
+    private final String indexDir;
+    private final int dimensions;
+    private final int maxResults;
+
+    private Path directory;
+    private boolean temporary;
+    private FeatureVectorizer vectorizer;
+    private VectorIndex index;
+    private DocumentCatalog catalog;
+    private ExecutorService backfillExecutor;
+    private volatile BackfillStatus backfillStatus = BackfillStatus.RUNNING;
+    private volatile boolean closing;
+
+    public SimilarityService(AnalysisResultStore analysisStorage,
+            @Value("${analyzer.similarity.dir:}") String indexDir,
+            @Value("${analyzer.similarity.dimensions:256}") int dimensions,
+            @Value("${analyzer.similarity.max-k:50}") int maxResults) {
+        this.analysisStorage = analysisStorage;
+        this.indexDir = indexDir;
+        this.dimensions = dimensions;
+        this.maxResults = Math.max(1, maxResults);
+    }
+
+    /**
+     * Open the index and start adding stored analyses it is missing. Without
+     * a configured directory the index lives in a temp directory for the
+     * lifetime of this JVM, like the in-memory result store.
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        temporary = indexDir == null || indexDir.isBlank();
+        directory = temporary ? Files.createTempDirectory("similarity-index") : Path.of(indexDir);
+        Files.createDirectories(directory);
+
+        vectorizer = new FeatureVectorizer(directory.resolve(FREQUENCIES_FILE), dimensions);
+        index = new VectorIndex(directory.resolve(VECTORS_FILE), dimensions);
+        if (index.size() == 0 && vectorizer.getDocumentCount() > 0) {
+            // The vectors were lost or rebuilt; frequencies must count exactly the indexed documents
+            vectorizer.reset();
+        }
+        catalog = new DocumentCatalog(directory.resolve(CATALOG_FILE), index.size());
+
+        logger.info("Similarity index in {} holds {} documents", directory, index.size());
+
+        backfillExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "similarity-backfill");
+            thread.setDaemon(true);
+            return thread;
+        });
+        backfillExecutor.submit(this::backfill);
+    }
+
+    /**
+     * Index stored analyses the index is missing. Ids are streamed from the
+     * store and a record is only decoded when its id has no slot yet, so a
+     * restart over an up-to-date index reads no analyses at all.
+     */
+    private void backfill() {
+        long start = System.currentTimeMillis();
+        AtomicInteger added = new AtomicInteger();
+        try {
+            analysisStorage.forEachId(id -> {
+                if (closing) {
+                    throw new CancellationException();
+                }
+                if (index.slotOf(id) < 0) {
+                    DocumentAnalysis analysis = analysisStorage.get(id);
+                    if (analysis != null && index(analysis)) {
+                        added.incrementAndGet();
+                    }
+                }
+            });
+            backfillStatus = BackfillStatus.DONE;
+            logger.info("Similarity index holds {} documents ({} added from the result store in {} ms)",
+                    index.size(), added.get(), System.currentTimeMillis() - start);
+        } catch (CancellationException e) {
+            logger.debug("Similarity backfill stopped after adding {} documents", added.get());
+        } catch (RuntimeException e) {
+            backfillStatus = BackfillStatus.FAILED;
+            logger.warn("Similarity backfill failed after adding {} documents: {}", added.get(), e.getMessage());
+        }
+    }
+
+    public BackfillStatus getBackfillStatus() {
+        return backfillStatus;
+    }
+
+    /**
+     * Add an analysis to the index unless it is already there; failures are
+     * logged rather than failing the analysis
+     *
+     * @return whether the document was added
+     */
+    public boolean index(DocumentAnalysis analysis) {
+        try {
+            if (index.slotOf(analysis.getId()) >= 0) {
+                return false;
+            }
+            FeatureVectorizer.Features features = vectorizer.extract(analysis.getExtractedText(),
+                    analysis.getKeyPhrases());
+            // Counting the document frequencies and appending must happen once per document
+            synchronized (this) {
+                if (index.slotOf(analysis.getId()) >= 0) {
+                    return false;
+                }
+                if (!index.add(analysis.getId(), vectorizer.vectorize(features, true))) {
+                    return false;
+                }
+                catalog.put(index.size() - 1, analysis.getFilename(), analysis.getFileType());
+                return true;
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("Could not add document {} to the similarity index: {}", analysis.getId(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Documents most similar to the given one, best first. Matches are
+     * described from the catalog; a stored analysis is only read for a query
+     * document this node has not indexed yet, or for matches indexed before
+     * the catalog existed.
+     *
+     * @return the matches, or null if the document is unknown
+     */
+    public List<SimilarDocument> findSimilar(String documentId, int k) {
+        int slot = index.slotOf(documentId);
+        FeatureVector query = null;
+        if (slot < 0) {
+            // Unknown here: analyzed by another node since this one started, or not at all
+            DocumentAnalysis analysis = analysisStorage.get(documentId);
+            if (analysis == null) {
+                return null;
+            }
+            index(analysis);
+            slot = index.slotOf(documentId);
+            if (slot < 0) {
+                query = vectorizer.vectorize(vectorizer.extract(analysis.getExtractedText(),
+                        analysis.getKeyPhrases()), false);
+            }
+        }
+        if (query == null) {
+            query = index.vectorAt(slot);
+        }
+
+        int limit = Math.min(Math.max(1, k), maxResults);
+        TopK top = index.search(query, limit, slot);
+        float[] scores = new float[top.size()];
+        int[] slots = new int[top.size()];
+        top.drain(scores, slots);
+
+        List<SimilarDocument> similar = new ArrayList<>(slots.length);
+        for (int i = 0; i < slots.length; i++) {
+            String id = index.idAt(slots[i]);
+            String[] entry = describe(slots[i]);
+            if (entry != null) {
+                similar.add(new SimilarDocument(id, entry[0], entry[1], Math.round(scores[i] * 10000) / 10000.0));
+            } else {
+                DocumentAnalysis match = analysisStorage.get(id);
+                if (match != null) {
+                    similar.add(new SimilarDocument(id, match.getFilename(), match.getFileType(),
+                            Math.round(scores[i] * 10000) / 10000.0));
+                }
+            }
+        }
+        return similar;
+    }
+
+    private String[] describe(int slot) {
+        try {
+            return catalog.get(slot);
+        } catch (IOException e) {
+            logger.warn("Cannot read slot {} of the similarity catalog: {}", slot, e.getMessage());
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        try {
+            // The backfill writes to the mapped files, so it has to stop before they are unmapped.
+            // Not by interrupting it: an interrupt would close the index's file channel mid-write
+            closing = true;
+            backfillExecutor.shutdown();
+            if (!backfillExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.warn("Similarity backfill did not stop; closing the index anyway");
+            }
+            index.close();
+            vectorizer.close();
+            catalog.close();
+            if (temporary) {
+                Files.deleteIfExists(directory.resolve(VECTORS_FILE));
+                Files.deleteIfExists(directory.resolve(FREQUENCIES_FILE));
+                Files.deleteIfExists(directory.resolve(CATALOG_FILE));
+                Files.deleteIfExists(directory);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.analyzer.similarity;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from id hash to index slot in two primitive arrays, so
+ * that a million indexed documents cost two arrays rather than a million map
+ * entries. Hashes may collide; callers confirm candidates against the stored
+ * id. Not thread-safe.
+ */
+class SlotTable {
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    private static final int EMPTY = -1;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int[] slots = emptySlots(INITIAL_CAPACITY);
+    private int size;
+
+    void put(long key, int slot) {
+        if ((size + 1) * 2 > slots.length) {
+            resize();
+        }
+        insert(keys, slots, key, slot);
+        size++;
+    }
+
+    /**
+     * All slots stored under the key; almost always zero or one
+     */
+    int[] get(long key) {
+        int[] found = new int[0];
+        int mask = slots.length - 1;
+        for (int i = index(key, mask); slots[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                found = Arrays.copyOf(found, found.length + 1);
+                found[found.length - 1] = slots[i];
+            }
+        }
+        return found;
+    }
+
+    private void resize() {
+        long[] newKeys = new long[keys.length * 2];
+        int[] newSlots = emptySlots(slots.length * 2);
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] != EMPTY) {
+                insert(newKeys, newSlots, keys[i], slots[i]);
+            }
+        }
+        keys = newKeys;
+        slots = newSlots;
+    }
+
+    private static void insert(long[] keys, int[] slots, long key, int slot) {
+        int mask = slots.length - 1;
+        int i = index(key, mask);
+        while (slots[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        slots[i] = slot;
+    }
+
+    private static int index(long key, int mask) {
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+
+    private static int[] emptySlots(int capacity) {
+        int[] empty = new int[capacity];
+        Arrays.fill(empty, EMPTY);
+        return empty;
+    }
+}
@@ -0,0 +1,93 @@
+package com.analyzer.similarity;
+
+/**
+ * Bounded min-heap of (score, slot) pairs in primitive arrays, keeping the K
+ * highest scores seen
+ */
+class TopK {
+
+    private final float[] scores;
+    private final int[] slots;
+    private int size;
+
+    TopK(int k) {
+        this.scores = new float[k];
+        this.slots = new int[k];
+    }
+
+    void offer(float score, int slot) {
+        if (size < scores.length) {
+            scores[size] = score;
+            slots[size] = slot;
+            siftUp(size++);
+        } else if (size > 0 && score > scores[0]) {
+            scores[0] = score;
+            slots[0] = slot;
+            siftDown(0);
+        }
+    }
+
+    TopK merge(TopK other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.scores[i], other.slots[i]);
+        }
+        return this;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Drain into parallel arrays ordered by descending score
+     */
+    void drain(float[] sortedScores, int[] sortedSlots) {
+        for (int i = size - 1; i >= 0; i--) {
+            sortedScores[i] = scores[0];
+            sortedSlots[i] = slots[0];
+            size--;
+            scores[0] = scores[size];
+            slots[0] = slots[size];
+            siftDown(0);
+        }
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (scores[parent] <= scores[i]) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && scores[left] < scores[smallest]) {
+                smallest = left;
+            }
+            if (right < size && scores[right] < scores[smallest]) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        float score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+        int slot = slots[a];
+        slots[a] = slots[b];
+        slots[b] = slot;
+    }
+}
@@ -0,0 +1,78 @@
+package com.analyzer.cluster;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileAnalysisJobQueueTest {
+
+    private static final long WORKER_TIMEOUT_MS = 200;
+
+    @TempDir
+    Path baseDir;
+
+    @Test
+    void jobClaimedByDeadWorkerIsTakenOver() throws InterruptedException {
+        FileAnalysisJobQueue queue = new FileAnalysisJobQueue(baseDir, 16, WORKER_TIMEOUT_MS);
+        queue.heartbeat("a");
+        byte[] content = "quarterly report".getBytes(StandardCharsets.UTF_8);
+        queue.submit(new AnalysisJob("job-1", "report.txt", content, "parent-1"));
+        assertEquals("job-1", queue.claim("a").orElseThrow().getId());
+
+        // Worker a dies mid-analysis: its heartbeat expires and the job is never completed
+        Thread.sleep(WORKER_TIMEOUT_MS * 2);
+        queue.heartbeat("b");
+        assertEquals(Set.of("b"), queue.liveWorkers());
+
+        assertEquals(1, queue.takeOverExpiredWorkers("b"));
+        assertTrue(queue.isPending("job-1"));
+        AnalysisJob job = queue.claim("b").orElseThrow();
+        assertEquals("job-1", job.getId());
+        assertEquals("report.txt", job.getFilename());
+        assertEquals("parent-1", job.getParentId());
+        assertArrayEquals(content, job.getContent());
+
+        assertTrue(queue.isPending("job-1"));
+        queue.complete("b", "job-1");
+        assertFalse(queue.isPending("job-1"));
+        assertEquals(Optional.empty(), queue.claim("b"));
+    }
+
+    @Test
+    void queuedJobsOfDeadWorkerAreTakenOver() throws InterruptedException {
+        FileAnalysisJobQueue queue = new FileAnalysisJobQueue(baseDir, 16, WORKER_TIMEOUT_MS);
+        queue.heartbeat("a");
+        queue.submit(new AnalysisJob("job-1", "one.txt", new byte[] { 1 }));
+        queue.submit(new AnalysisJob("job-2", "two.txt", new byte[] { 2 }));
+
+        Thread.sleep(WORKER_TIMEOUT_MS * 2);
+        queue.heartbeat("b");
+
+        assertEquals(2, queue.takeOverExpiredWorkers("b"));
+        assertTrue(queue.claim("b").isPresent());
+        assertTrue(queue.claim("b").isPresent());
+        assertEquals(Optional.empty(), queue.claim("b"));
+    }
+
+    @Test
+    void jobsOfLiveWorkersStayPut() {
+        FileAnalysisJobQueue queue = new FileAnalysisJobQueue(baseDir, 16, 60_000);
+        queue.heartbeat("a");
+        queue.submit(new AnalysisJob("job-1", "report.txt", new byte[] { 1 }));
+        assertTrue(queue.claim("a").isPresent());
+        queue.heartbeat("b");
+
+        assertEquals(0, queue.takeOverExpiredWorkers("b"));
+        assertEquals(Optional.empty(), queue.claim("b"));
+        assertTrue(queue.isPending("job-1"));
+    }
+}
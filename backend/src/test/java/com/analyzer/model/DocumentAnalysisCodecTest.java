@@ -0,0 +1,151 @@
+package com.analyzer.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DocumentAnalysisCodecTest {
+
+    private static final int VERSION_OFFSET = 2;
+
+    @Test
+    void roundTripsEveryField() {
+        DocumentAnalysis analysis = analysis();
+        DocumentChunk analyzed = new DocumentChunk(42L, 0, 120);
+        analyzed.setSentiment("POSITIVE");
+        analyzed.setPositiveScore(0.7f);
+        analyzed.setNeutralScore(0.3f);
+        analyzed.setKeyPhrases(List.of("quarterly report"));
+        analyzed.setEntities(List.of(new DocumentEntity("Acme", "ORGANIZATION", 0.9f)));
+        DocumentChunk unanalyzed = new DocumentChunk(-7L, 120, 80);
+        analysis.setChunks(List.of(analyzed, unanalyzed));
+        RevisionDiff revision = new RevisionDiff();
+        revision.setParentId("parent-id");
+        revision.setChunks(2);
+        revision.setReusedChunks(1);
+        revision.setAnalyzedChunks(1);
+        revision.setAddedCharacters(80);
+        revision.setRemovedCharacters(12);
+        revision.setChanges(List.of(new RevisionDiff.Change(RevisionDiff.Change.ADDED, 120, 80, "new text"),
+                new RevisionDiff.Change(RevisionDiff.Change.REMOVED, 118, 12, "old text")));
+        analysis.setRevision(revision);
+
+        DocumentAnalysis decoded = DocumentAnalysisCodec.decode(DocumentAnalysisCodec.encode(analysis));
+
+        assertSameDocument(analysis, decoded);
+        assertEquals(2, decoded.getChunks().size());
+        DocumentChunk chunk = decoded.getChunks().get(0);
+        assertEquals(42L, chunk.getHash());
+        assertEquals(120, chunk.getLength());
+        assertEquals("POSITIVE", chunk.getSentiment());
+        assertEquals(0.7f, chunk.getPositiveScore());
+        assertEquals(List.of("quarterly report"), chunk.getKeyPhrases());
+        assertEquals("Acme", chunk.getEntities().get(0).getText());
+        assertTrue(!decoded.getChunks().get(1).isAnalyzed());
+        assertEquals("parent-id", decoded.getRevision().getParentId());
+        assertEquals(12, decoded.getRevision().getRemovedCharacters());
+        assertEquals(RevisionDiff.Change.REMOVED, decoded.getRevision().getChanges().get(1).getType());
+        assertEquals("old text", decoded.getRevision().getChanges().get(1).getText());
+    }
+
+    @Test
+    void roundTripsNullsAndUnknownDictionaryValues() {
+        DocumentAnalysis analysis = new DocumentAnalysis("id", null, "odt", 0);
+        analysis.setAnalyzedAt(null);
+        analysis.setEntities(List.of(new DocumentEntity("thing", "CUSTOM_TYPE", 0.5f)));
+
+        DocumentAnalysis decoded = DocumentAnalysisCodec.decode(DocumentAnalysisCodec.encode(analysis));
+
+        assertNull(decoded.getFilename());
+        assertEquals("odt", decoded.getFileType());
+        assertNull(decoded.getAnalyzedAt());
+        assertNull(decoded.getExtractedText());
+        assertNull(decoded.getKeyPhrases());
+        assertEquals("CUSTOM_TYPE", decoded.getEntities().get(0).getType());
+        assertNull(decoded.getChunks());
+        assertNull(decoded.getRevision());
+    }
+
+    @Test
+    void decodesVersionOneRecords() {
+        DocumentAnalysis analysis = analysis();
+        byte[] current = DocumentAnalysisCodec.encode(analysis);
+        // Without chunks and revision a version 2 record ends in two null markers that version 1 lacks
+        byte[] versionOne = Arrays.copyOf(current, current.length - 2);
+        versionOne[VERSION_OFFSET] = 1;
+
+        DocumentAnalysis decoded = DocumentAnalysisCodec.decode(versionOne);
+
+        assertSameDocument(analysis, decoded);
+        assertNull(decoded.getChunks());
+        assertNull(decoded.getRevision());
+    }
+
+    @Test
+    void rejectsUnknownVersionsAndForeignData() {
+        byte[] encoded = DocumentAnalysisCodec.encode(analysis());
+        encoded[VERSION_OFFSET] = 3;
+        assertThrows(IllegalArgumentException.class, () -> DocumentAnalysisCodec.decode(encoded));
+        assertThrows(IllegalArgumentException.class, () -> DocumentAnalysisCodec.decode(new byte[] { '{', '}', 1 }));
+    }
+
+    @Test
+    void rejectsEveryTruncation() {
+        DocumentAnalysis analysis = analysis();
+        analysis.setChunks(List.of(new DocumentChunk(1L, 0, 10)));
+        byte[] encoded = DocumentAnalysisCodec.encode(analysis);
+
+        for (int length = 0; length < encoded.length; length++) {
+            byte[] truncated = Arrays.copyOf(encoded, length);
+            RuntimeException error = assertThrows(RuntimeException.class,
+                    () -> DocumentAnalysisCodec.decode(truncated), "prefix of " + length + " bytes");
+            assertTrue(error instanceof UncheckedIOException || error instanceof IllegalArgumentException,
+                    "prefix of " + length + " bytes failed with " + error);
+        }
+    }
+
+    private static DocumentAnalysis analysis() {
+        DocumentAnalysis analysis = new DocumentAnalysis("3f1c2a9e-0000-4000-8000-000000000001", "report.pdf",
+                "pdf", 123_456);
+        // Long enough to be stored deflated
+        analysis.setExtractedText("The quarterly report shows steady growth. ".repeat(40) + "\u00e9t\u00e9 \u4e2d\u6587");
+        analysis.setSummary("The quarterly report shows steady growth.");
+        analysis.setSentiment("POSITIVE");
+        analysis.setSentimentScore(0.8125);
+        analysis.setAnalyzedAt(LocalDateTime.of(2025, 11, 14, 14, 30, 5, 123_000_000));
+        analysis.setKeyPhrases(List.of("quarterly report", "steady growth"));
+        analysis.setEntities(List.of(new DocumentEntity("Acme Corp", "ORGANIZATION", 0.97f),
+                new DocumentEntity("Paris", "LOCATION", 0.88f)));
+        return analysis;
+    }
+
+    private static void assertSameDocument(DocumentAnalysis expected, DocumentAnalysis actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getFilename(), actual.getFilename());
+        assertEquals(expected.getFileType(), actual.getFileType());
+        assertEquals(expected.getFileSize(), actual.getFileSize());
+        assertEquals(expected.getWordCount(), actual.getWordCount());
+        assertEquals(expected.getCharacterCount(), actual.getCharacterCount());
+        assertEquals(expected.getReadingTime(), actual.getReadingTime());
+        assertEquals(expected.getExtractedText(), actual.getExtractedText());
+        assertEquals(expected.getSummary(), actual.getSummary());
+        assertEquals(expected.getSentiment(), actual.getSentiment());
+        assertEquals(expected.getSentimentScore(), actual.getSentimentScore());
+        assertEquals(expected.getAnalyzedAt(), actual.getAnalyzedAt());
+        assertEquals(expected.getKeyPhrases(), actual.getKeyPhrases());
+        assertEquals(expected.getEntities().size(), actual.getEntities().size());
+        for (int i = 0; i < expected.getEntities().size(); i++) {
+            assertEquals(expected.getEntities().get(i).getText(), actual.getEntities().get(i).getText());
+            assertEquals(expected.getEntities().get(i).getType(), actual.getEntities().get(i).getType());
+            assertEquals(expected.getEntities().get(i).getConfidence(), actual.getEntities().get(i).getConfidence());
+        }
+    }
+}
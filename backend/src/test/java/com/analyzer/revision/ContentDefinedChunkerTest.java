@@ -0,0 +1,98 @@
+package com.analyzer.revision;
+
+import com.analyzer.model.DocumentChunk;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContentDefinedChunkerTest {
+
+    private static final int AVERAGE_CHARS = 512;
+
+    private final ContentDefinedChunker chunker = new ContentDefinedChunker(AVERAGE_CHARS);
+
+    @Test
+    void chunksCoverTheTextWithinSizeBounds() {
+        String text = text(4000, 1);
+        List<DocumentChunk> chunks = chunker.split(text);
+
+        assertTrue(chunks.size() > 10, "expected many chunks, got " + chunks.size());
+        int offset = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            DocumentChunk chunk = chunks.get(i);
+            assertEquals(offset, chunk.getOffset());
+            assertTrue(chunk.getLength() <= AVERAGE_CHARS * 2 + 256, "chunk " + i + " is " + chunk.getLength());
+            if (i < chunks.size() - 1) {
+                assertTrue(chunk.getLength() >= AVERAGE_CHARS / 4, "chunk " + i + " is " + chunk.getLength());
+                assertTrue(Character.isWhitespace(text.charAt(chunk.getOffset() + chunk.getLength() - 1)),
+                        "chunk " + i + " cuts a word");
+            }
+            offset += chunk.getLength();
+        }
+        assertEquals(text.length(), offset);
+    }
+
+    @Test
+    void boundariesSurviveAnInsertion() {
+        String original = text(4000, 2);
+        int at = original.indexOf(' ', original.length() / 2) + 1;
+        String edited = original.substring(0, at) + text(40, 3) + original.substring(at);
+        int inserted = edited.length() - original.length();
+
+        List<DocumentChunk> before = chunker.split(original);
+        List<DocumentChunk> after = chunker.split(edited);
+
+        Set<Long> editedHashes = new HashSet<>();
+        for (DocumentChunk chunk : after) {
+            editedHashes.add(chunk.getHash());
+        }
+        int following = 0;
+        int lost = 0;
+        for (DocumentChunk chunk : before) {
+            if (chunk.getOffset() + chunk.getLength() <= at) {
+                // Chunks before the edit are untouched, including their offsets
+                DocumentChunk same = after.get(before.indexOf(chunk));
+                assertEquals(chunk.getHash(), same.getHash());
+                assertEquals(chunk.getOffset(), same.getOffset());
+            } else if (chunk.getOffset() > at) {
+                following++;
+                if (!editedHashes.contains(chunk.getHash())) {
+                    lost++;
+                }
+            }
+        }
+        assertTrue(following > 5, "expected chunks after the insertion, got " + following);
+        // Only the chunks next to the edit change; boundaries resynchronise after it
+        assertTrue(lost <= 2, lost + " of " + following + " chunks after the insertion changed");
+
+        DocumentChunk last = before.get(before.size() - 1);
+        DocumentChunk shifted = after.get(after.size() - 1);
+        assertEquals(last.getHash(), shifted.getHash());
+        assertEquals(last.getOffset() + inserted, shifted.getOffset());
+    }
+
+    @Test
+    void emptyTextHasNoChunks() {
+        assertTrue(chunker.split("").isEmpty());
+        assertTrue(chunker.split(null).isEmpty());
+    }
+
+    private static String text(int words, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            int length = 2 + random.nextInt(9);
+            for (int j = 0; j < length; j++) {
+                text.append((char) ('a' + random.nextInt(26)));
+            }
+            text.append(random.nextInt(12) == 0 ? ".\n" : " ");
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,79 @@
+package com.analyzer.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TenantSchedulerTest {
+
+    private static final TenantScheduler.Lane LANE = TenantScheduler.Lane.INTERACTIVE;
+
+    @Test
+    void loneTenantUsesEverySlotBeyondItsCap() {
+        TenantScheduler scheduler = scheduler(4, 2);
+
+        List<CompletableFuture<TenantSlot>> slots = acquire(scheduler, "bulk", 5);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(slots.get(i).isDone(), "slot " + i + " should start at once");
+        }
+        assertFalse(slots.get(4).isDone());
+        assertEquals(4, scheduler.snapshot().getRunning());
+
+        slots.get(0).join().close();
+        assertTrue(slots.get(4).isDone(), "a freed slot nobody else wants goes to the capped tenant");
+    }
+
+    @Test
+    void arrivingTenantGetsTheNextFreedSlot() {
+        TenantScheduler scheduler = scheduler(4, 2);
+        List<CompletableFuture<TenantSlot>> bulk = acquire(scheduler, "bulk", 6);
+
+        CompletableFuture<TenantSlot> interactive = scheduler.acquireAsync("interactive", LANE, 1024);
+        assertFalse(interactive.isDone());
+
+        // The capped tenant queued first, but the tenant below its cap goes ahead
+        bulk.get(0).join().close();
+        assertTrue(interactive.isDone());
+        assertEquals("interactive", interactive.join().getTenant());
+        assertFalse(bulk.get(4).isDone());
+
+        // With nobody below the cap waiting, the capped tenant gets the slot again
+        bulk.get(1).join().close();
+        assertTrue(bulk.get(4).isDone());
+        assertFalse(bulk.get(5).isDone());
+        assertEquals(4, scheduler.snapshot().getRunning());
+    }
+
+    @Test
+    void clusterLimitsAreSharedBetweenNodes() {
+        TenantScheduler scheduler = scheduler(4, 2);
+        List<CompletableFuture<TenantSlot>> slots = acquire(scheduler, "bulk", 6);
+
+        scheduler.setMaxConcurrent(12, 2);
+
+        assertEquals(6, scheduler.snapshot().getMaxConcurrent());
+        assertEquals(1, scheduler.snapshot().getTenantMaxConcurrent());
+        // Queued requests start as soon as the limit grows
+        assertTrue(slots.get(5).isDone());
+    }
+
+    private static TenantScheduler scheduler(int maxConcurrent, int tenantMaxConcurrent) {
+        return new TenantScheduler(maxConcurrent, tenantMaxConcurrent, 500, 30000, 9, 1, "", "");
+    }
+
+    private static List<CompletableFuture<TenantSlot>> acquire(TenantScheduler scheduler, String tenant,
+            int count) {
+        List<CompletableFuture<TenantSlot>> slots = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            slots.add(scheduler.acquireAsync(tenant, LANE, 1024));
+        }
+        return slots;
+    }
+}
@@ -2,6 +2,10 @@ import React, { useState, useRef } from 'react';
 import { uploadDocument } from '../services/api';
 import './DocumentUpload.css';
 
+// Browsers report no or inconsistent MIME types for most of these, so check the extension;
+// the server identifies the actual format from the content
+const ALLOWED_EXTENSIONS = ['pdf', 'docx', 'txt', 'html', 'htm', 'md', 'markdown', 'rtf', 'xlsx', 'pptx', 'eml'];
+
 const DocumentUpload = ({ onAnalysisComplete, onUploadStart, loading, onReset }) => {
   const [dragActive, setDragActive] = useState(false);
   const [error, setError] = useState(null);
@@ -12,13 +16,9 @@ const DocumentUpload = ({ onAnalysisComplete, onUploadStart, loading, onReset })
       const file = files[0];
 
       // Validate file type
-      const allowedTypes = [
-        'application/pdf',
-        'text/plain',
-        'application/vnd.openxmlformats-officedocument.wordprocessingml.document',
-      ];
-      if (!allowedTypes.includes(file.type)) {
-        setError('Please upload a PDF, TXT, or DOCX file.');
+      const extension = file.name.includes('.') ? file.name.split('.').pop().toLowerCase() : '';
+      if (!ALLOWED_EXTENSIONS.includes(extension)) {
+        setError('Please upload a PDF, Word, Excel, PowerPoint, HTML, Markdown, RTF, e-mail or text file.');
         return;
       }
 
@@ -75,7 +75,7 @@ const DocumentUpload = ({ onAnalysisComplete, onUploadStart, loading, onReset })
   return (
     <div className="card">
       <h2>📄 Upload Document</h2>
-      <p className="text-muted">Upload a PDF, Word document, or text file to analyze</p>
+      <p className="text-muted">Upload a document, spreadsheet, presentation, web page or e-mail to analyze</p>
 
       <div
         className={`upload-area ${dragActive ? 'drag-active' : ''} ${loading ? 'loading' : ''}`}
@@ -87,7 +87,7 @@ const DocumentUpload = ({ onAnalysisComplete, onUploadStart, loading, onReset })
         <input
           ref={fileInputRef}
           type="file"
-          accept=".pdf,.txt,.docx"
+          accept={ALLOWED_EXTENSIONS.map((extension) => `.${extension}`).join(',')}
           onChange={handleChange}
           style={{ display: 'none' }}
           disabled={loading}
@@ -107,7 +107,7 @@ const DocumentUpload = ({ onAnalysisComplete, onUploadStart, loading, onReset })
                 browse
               </button>
             </p>
-            <p className="file-info">Supports PDF, DOCX, and TXT files up to 50MB</p>
+            <p className="file-info">Supports PDF, DOCX, XLSX, PPTX, HTML, Markdown, RTF, EML and TXT files up to 50MB</p>
           </>
         )}
       </div>
@@ -0,0 +1,235 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local HTTP stub of the AWS Comprehend JSON API for offline load testing.
+ *
+ * Answers DetectSentiment, DetectKeyPhrases, DetectEntities,
+ * DetectDominantLanguage and ListDocumentClassifiers with synthetic results
+ * after an injectable latency, and throttles like the real service when the
+ * configured rate is exceeded.
+ *
+ * Usage:
+ *   java ComprehendStub.java [--port 4566] [--latency-ms 80] [--jitter-ms 40]
+ *                            [--max-tps 20] [--throttle-probability 0.0]
+ *
+ * Point the backend at it with:
+ *   --aws.comprehend.use-real-service=true --aws.comprehend.endpoint=http://localhost:4566
+ * and any non-empty AWS_ACCESS_KEY_ID / AWS_SECRET_ACCESS_KEY (signatures are not checked).
+ */
+public class ComprehendStub {
+
+    private static final String TARGET_PREFIX = "Comprehend_20171127.";
+    private static final Pattern CAPITALIZED_PAIR = Pattern.compile("\\b[A-Z][a-z]{2,}\\s[A-Z][a-z]{2,}\\b");
+
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double throttleProbability;
+    private final int maxTps;
+
+    // Fixed one-second window for the max-tps limit
+    private final AtomicLong windowStart = new AtomicLong(System.currentTimeMillis());
+    private final AtomicLong windowCount = new AtomicLong();
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+
+    public ComprehendStub(long latencyMs, long jitterMs, double throttleProbability, int maxTps) {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.throttleProbability = throttleProbability;
+        this.maxTps = maxTps;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = 4566;
+        long latencyMs = 80;
+        long jitterMs = 40;
+        double throttleProbability = 0.0;
+        int maxTps = 0;
+
+        for (int i = 0; i < args.length - 1; i += 2) {
+            switch (args[i]) {
+                case "--port" -> port = Integer.parseInt(args[i + 1]);
+                case "--latency-ms" -> latencyMs = Long.parseLong(args[i + 1]);
+                case "--jitter-ms" -> jitterMs = Long.parseLong(args[i + 1]);
+                case "--throttle-probability" -> throttleProbability = Double.parseDouble(args[i + 1]);
+                case "--max-tps" -> maxTps = Integer.parseInt(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        ComprehendStub stub = new ComprehendStub(latencyMs, jitterMs, throttleProbability, maxTps);
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/", stub::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        System.out.printf("Comprehend stub listening on http://localhost:%d (latency %d +/- %d ms, max-tps %s, "
+                + "throttle-probability %.2f)%n", port, latencyMs, jitterMs,
+                maxTps > 0 ? Integer.toString(maxTps) : "unlimited", throttleProbability);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.printf(
+                "Served %d request(s), throttled %d%n", stub.served.get(), stub.throttled.get())));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String target = exchange.getRequestHeaders().getFirst("X-Amz-Target");
+        String operation = target != null && target.startsWith(TARGET_PREFIX)
+                ? target.substring(TARGET_PREFIX.length())
+                : "";
+
+        if (shouldThrottle()) {
+            throttled.incrementAndGet();
+            exchange.getResponseHeaders().add("x-amzn-ErrorType", "ThrottlingException");
+            respond(exchange, 400, "{\"__type\":\"ThrottlingException\",\"message\":\"Rate exceeded\"}");
+            return;
+        }
+
+        sleep(latencyMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(-jitterMs, jitterMs + 1) : 0));
+        String text = extractText(body);
+
+        switch (operation) {
+            case "DetectSentiment" -> respond(exchange, 200, sentiment(text));
+            case "DetectKeyPhrases" -> respond(exchange, 200, keyPhrases(text));
+            case "DetectEntities" -> respond(exchange, 200, entities(text));
+            case "DetectDominantLanguage" ->
+                respond(exchange, 200, "{\"Languages\":[{\"LanguageCode\":\"en\",\"Score\":0.99}]}");
+            case "ListDocumentClassifiers" -> respond(exchange, 200, "{\"DocumentClassifierPropertiesList\":[]}");
+            default -> {
+                exchange.getResponseHeaders().add("x-amzn-ErrorType", "UnknownOperationException");
+                respond(exchange, 400, "{\"__type\":\"UnknownOperationException\",\"message\":\"" + operation + "\"}");
+                return;
+            }
+        }
+        served.incrementAndGet();
+    }
+
+    private boolean shouldThrottle() {
+        if (throttleProbability > 0 && ThreadLocalRandom.current().nextDouble() < throttleProbability) {
+            return true;
+        }
+        if (maxTps <= 0) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        long start = windowStart.get();
+        if (now - start >= 1000 && windowStart.compareAndSet(start, now)) {
+            windowCount.set(0);
+        }
+        return windowCount.incrementAndGet() > maxTps;
+    }
+
+    private String sentiment(String text) {
+        // Deterministic per text so repeated runs are comparable
+        double positive = Math.floorMod(text.hashCode(), 100) / 100.0;
+        double negative = (1 - positive) * 0.3;
+        double neutral = 1 - positive - negative;
+        String label = positive > 0.6 ? "POSITIVE" : negative > 0.25 ? "NEGATIVE" : "NEUTRAL";
+        return String.format(Locale.ROOT, "{\"Sentiment\":\"%s\",\"SentimentScore\":{\"Positive\":%.4f,\"Negative\":%.4f,"
+                + "\"Neutral\":%.4f,\"Mixed\":0.0}}", label, positive, negative, neutral);
+    }
+
+    private String keyPhrases(String text) {
+        StringBuilder json = new StringBuilder("{\"KeyPhrases\":[");
+        String[] words = text.split("\\s+");
+        int emitted = 0;
+        int offset = 0;
+        for (int i = 0; i + 1 < words.length && emitted < 10; i += 2) {
+            String phrase = words[i].replaceAll("[^A-Za-z]", "") + " " + words[i + 1].replaceAll("[^A-Za-z]", "");
+            if (phrase.length() > 8) {
+                if (emitted++ > 0) {
+                    json.append(',');
+                }
+                json.append(String.format(Locale.ROOT, "{\"Text\":\"%s\",\"Score\":0.95,\"BeginOffset\":%d,\"EndOffset\":%d}",
+                        phrase, offset, offset + phrase.length()));
+            }
+            offset += words[i].length() + words[i + 1].length() + 2;
+        }
+        return json.append("]}").toString();
+    }
+
+    private String entities(String text) {
+        StringBuilder json = new StringBuilder("{\"Entities\":[");
+        Matcher matcher = CAPITALIZED_PAIR.matcher(text);
+        int emitted = 0;
+        while (matcher.find() && emitted < 20) {
+            if (emitted++ > 0) {
+                json.append(',');
+            }
+            json.append(String.format(Locale.ROOT, "{\"Text\":\"%s\",\"Type\":\"PERSON\",\"Score\":0.9,"
+                    + "\"BeginOffset\":%d,\"EndOffset\":%d}", matcher.group(), matcher.start(), matcher.end()));
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Pull the "Text" member out of the request body without a JSON library
+     * (and without a backtracking regex, which overflows on large documents)
+     */
+    private static String extractText(String body) {
+        int key = body.indexOf("\"Text\"");
+        if (key < 0) {
+            return "";
+        }
+        int open = body.indexOf('"', body.indexOf(':', key) + 1);
+        if (open < 0) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = open + 1; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (c == '"') {
+                break;
+            }
+            if (c == '\\' && i + 1 < body.length()) {
+                char escaped = body.charAt(++i);
+                switch (escaped) {
+                    case 'n', 't', 'r' -> text.append(' ');
+                    case 'u' -> {
+                        text.append((char) Integer.parseInt(body.substring(i + 1, i + 5), 16));
+                        i += 4;
+                    }
+                    default -> text.append(escaped);
+                }
+            } else {
+                text.append(c);
+            }
+        }
+        return text.toString();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/x-amz-json-1.1");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
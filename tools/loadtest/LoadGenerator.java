@@ -0,0 +1,325 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Replays a corpus of PDF, DOCX and TXT files against /api/documents/upload
+ * and reports latency percentiles, throughput, error rate and server heap.
+ *
+ * Only 200 OK counts as a success; 202 Accepted (analysis still pending on a
+ * worker node) is reported separately and counts as an error. Server heap
+ * is sampled from /api/documents/diagnostics when --diagnostics-token
+ * matches the server's analyzer.diagnostics.token.
+ *
+ * Two arrival models:
+ *   closed loop (default)  --concurrency clients each send back to back
+ *   open loop (--rate R)   Poisson arrivals at R req/s, at most --concurrency
+ *                          in flight; latency is measured from the scheduled
+ *                          arrival so queueing delay is not hidden
+ *
+ * Usage:
+ *   java LoadGenerator.java --corpus ./corpus [--url http://localhost:8080]
+ *        [--concurrency 8] [--rate 0] [--requests 500 | --duration 60]
+ *        [--warmup 20] [--csv results.csv] [--diagnostics-token TOKEN]
+ */
+public class LoadGenerator {
+
+    private static final Pattern HEAP_USED = Pattern.compile("\"heapUsedBytes\"\\s*:\\s*\"?(\\d+)");
+
+    private final String baseUrl;
+    private final String diagnosticsToken;
+    private final List<Path> corpus;
+    private final HttpClient client;
+
+    private final AtomicLong nextFile = new AtomicLong();
+    private final List<Long> latenciesNanos = new ArrayList<>();
+    private final AtomicLong successes = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong maxHeapUsed = new AtomicLong();
+    private final AtomicLong lastHeapUsed = new AtomicLong();
+
+    public LoadGenerator(String baseUrl, List<Path> corpus, int concurrency, String diagnosticsToken) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.diagnosticsToken = diagnosticsToken;
+        this.corpus = corpus;
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newFixedThreadPool(Math.max(2, concurrency)))
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = "http://localhost:8080";
+        Path corpusDir = null;
+        int concurrency = 8;
+        double rate = 0;
+        long requests = 500;
+        long durationSeconds = 0;
+        int warmup = 20;
+        Path csv = null;
+        String diagnosticsToken = null;
+
+        for (int i = 0; i < args.length - 1; i += 2) {
+            switch (args[i]) {
+                case "--url" -> url = args[i + 1];
+                case "--corpus" -> corpusDir = Path.of(args[i + 1]);
+                case "--concurrency" -> concurrency = Integer.parseInt(args[i + 1]);
+                case "--rate" -> rate = Double.parseDouble(args[i + 1]);
+                case "--requests" -> requests = Long.parseLong(args[i + 1]);
+                case "--duration" -> durationSeconds = Long.parseLong(args[i + 1]);
+                case "--warmup" -> warmup = Integer.parseInt(args[i + 1]);
+                case "--csv" -> csv = Path.of(args[i + 1]);
+                case "--diagnostics-token" -> diagnosticsToken = args[i + 1];
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (corpusDir == null) {
+            System.err.println("Usage: java LoadGenerator.java --corpus <dir> [options]");
+            System.exit(2);
+        }
+
+        List<Path> corpus;
+        try (Stream<Path> files = Files.walk(corpusDir)) {
+            corpus = files.filter(Files::isRegularFile)
+                    .filter(p -> p.toString().toLowerCase(Locale.ROOT).matches(".*\\.(pdf|docx|txt)$"))
+                    .sorted()
+                    .toList();
+        }
+        if (corpus.isEmpty()) {
+            System.err.println("No PDF, DOCX or TXT files found in " + corpusDir);
+            System.exit(2);
+        }
+
+        LoadGenerator generator = new LoadGenerator(url, corpus, concurrency, diagnosticsToken);
+        System.out.printf("Corpus: %d file(s) from %s%n", corpus.size(), corpusDir);
+
+        if (warmup > 0) {
+            System.out.printf("Warming up with %d request(s)...%n", warmup);
+            generator.runClosedLoop(Math.min(concurrency, warmup), warmup, 0);
+            generator.reset();
+        }
+
+        ScheduledExecutorService heapSampler = Executors.newSingleThreadScheduledExecutor();
+        if (diagnosticsToken != null) {
+            heapSampler.scheduleAtFixedRate(generator::sampleHeap, 0, 1, TimeUnit.SECONDS);
+        }
+
+        long limit = durationSeconds > 0 ? Long.MAX_VALUE : requests;
+        long start = System.nanoTime();
+        if (rate > 0) {
+            generator.runOpenLoop(rate, concurrency, limit, durationSeconds);
+        } else {
+            generator.runClosedLoop(concurrency, limit, durationSeconds);
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        heapSampler.shutdownNow();
+        if (diagnosticsToken != null) {
+            generator.sampleHeap();
+        }
+        generator.report(elapsedSeconds, concurrency, rate, csv);
+        System.exit(0);
+    }
+
+    private void runClosedLoop(int clients, long limit, long durationSeconds) throws InterruptedException {
+        long deadline = durationSeconds > 0 ? System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds)
+                : Long.MAX_VALUE;
+        AtomicLong issued = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        for (int c = 0; c < clients; c++) {
+            pool.submit(() -> {
+                while (issued.incrementAndGet() <= limit && System.nanoTime() < deadline) {
+                    send(System.nanoTime());
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+    }
+
+    private void runOpenLoop(double rate, int maxInFlight, long limit, long durationSeconds)
+            throws InterruptedException {
+        long deadline = durationSeconds > 0 ? System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds)
+                : Long.MAX_VALUE;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        ExecutorService pool = Executors.newCachedThreadPool();
+        long scheduled = System.nanoTime();
+
+        for (long issued = 0; issued < limit && scheduled < deadline; issued++) {
+            // Exponential inter-arrival times give a Poisson arrival process
+            double gapSeconds = -Math.log(1 - ThreadLocalRandom.current().nextDouble()) / rate;
+            scheduled += (long) (gapSeconds * 1e9);
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            long arrival = scheduled;
+            inFlight.acquire();
+            pool.submit(() -> {
+                try {
+                    send(arrival);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+    }
+
+    private void send(long startNanos) {
+        Path file = corpus.get((int) (nextFile.getAndIncrement() % corpus.size()));
+        try {
+            String boundary = "----loadtest" + UUID.randomUUID();
+            byte[] body = multipartBody(file, boundary);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/documents/upload"))
+                    .timeout(Duration.ofMinutes(5))
+                    .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            bytesSent.addAndGet(body.length);
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            record(startNanos, response.statusCode());
+        } catch (IOException e) {
+            record(startNanos, 0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private byte[] multipartBody(Path file, String boundary) throws IOException {
+        String header = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + file.getFileName() + "\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n";
+        String footer = "\r\n--" + boundary + "--\r\n";
+        byte[] head = header.getBytes(StandardCharsets.UTF_8);
+        byte[] content = Files.readAllBytes(file);
+        byte[] tail = footer.getBytes(StandardCharsets.UTF_8);
+
+        byte[] body = new byte[head.length + content.length + tail.length];
+        System.arraycopy(head, 0, body, 0, head.length);
+        System.arraycopy(content, 0, body, head.length, content.length);
+        System.arraycopy(tail, 0, body, head.length + content.length, tail.length);
+        return body;
+    }
+
+    private void record(long startNanos, int status) {
+        long latency = System.nanoTime() - startNanos;
+        synchronized (latenciesNanos) {
+            latenciesNanos.add(latency);
+        }
+        // 202 means the analysis has not finished, so it is not a completed request
+        if (status == 202) {
+            pending.incrementAndGet();
+        }
+        (status == 200 ? successes : errors).incrementAndGet();
+    }
+
+    private void sampleHeap() {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/documents/diagnostics"))
+                    .timeout(Duration.ofSeconds(5))
+                    .header("X-Diagnostics-Token", diagnosticsToken)
+                    .GET()
+                    .build();
+            String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+            Matcher matcher = HEAP_USED.matcher(body);
+            if (matcher.find()) {
+                long used = Long.parseLong(matcher.group(1));
+                lastHeapUsed.set(used);
+                maxHeapUsed.accumulateAndGet(used, Math::max);
+            }
+        } catch (IOException e) {
+            // heap sampling is best effort
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void reset() {
+        synchronized (latenciesNanos) {
+            latenciesNanos.clear();
+        }
+        successes.set(0);
+        errors.set(0);
+        pending.set(0);
+        bytesSent.set(0);
+        maxHeapUsed.set(0);
+    }
+
+    private void report(double elapsedSeconds, int concurrency, double rate, Path csv) throws IOException {
+        long[] sorted;
+        synchronized (latenciesNanos) {
+            sorted = latenciesNanos.stream().mapToLong(Long::longValue).toArray();
+        }
+        Arrays.sort(sorted);
+        long total = successes.get() + errors.get();
+
+        double p50 = percentileMillis(sorted, 0.50);
+        double p95 = percentileMillis(sorted, 0.95);
+        double p99 = percentileMillis(sorted, 0.99);
+        double max = sorted.length > 0 ? sorted[sorted.length - 1] / 1e6 : 0;
+        double throughput = total / elapsedSeconds;
+        double errorRate = total > 0 ? (double) errors.get() / total : 0;
+
+        System.out.println();
+        System.out.printf(Locale.ROOT, "Mode:          %s%n",
+                rate > 0 ? String.format(Locale.ROOT, "open loop, %.1f req/s, max %d in flight", rate, concurrency)
+                        : "closed loop, " + concurrency + " client(s)");
+        System.out.printf(Locale.ROOT, "Requests:      %d in %.1f s (%.1f MB uploaded)%n", total, elapsedSeconds,
+                bytesSent.get() / 1048576.0);
+        System.out.printf(Locale.ROOT, "Throughput:    %.2f req/s%n", throughput);
+        System.out.printf(Locale.ROOT, "Error rate:    %.2f%% (%d error(s), %d still pending)%n", errorRate * 100,
+                errors.get(), pending.get());
+        System.out.printf(Locale.ROOT, "Latency (ms):  p50 %.1f  p95 %.1f  p99 %.1f  max %.1f%n", p50, p95, p99, max);
+        if (maxHeapUsed.get() > 0) {
+            System.out.printf(Locale.ROOT, "Server heap:   peak %.1f MB, last %.1f MB%n",
+                    maxHeapUsed.get() / 1048576.0, lastHeapUsed.get() / 1048576.0);
+        } else {
+            System.out.println("Server heap:   not sampled (needs --diagnostics-token)");
+        }
+
+        if (csv != null) {
+            boolean newFile = !Files.exists(csv);
+            String line = String.format(Locale.ROOT, "%s,%d,%.2f,%d,%.2f,%.4f,%.1f,%.1f,%.1f,%.1f,%d%n",
+                    rate > 0 ? "open" : "closed", concurrency, rate, total, throughput, errorRate,
+                    p50, p95, p99, max, maxHeapUsed.get());
+            String content = (newFile ? "mode,concurrency,rate,requests,throughput,error_rate,"
+                    + "p50_ms,p95_ms,p99_ms,max_ms,peak_heap_bytes\n" : "") + line;
+            Files.writeString(csv, content, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+}